@@ -0,0 +1,45 @@
+package cbcoder.webapp.Audit.controller;
+
+import cbcoder.webapp.Audit.model.DTOs.AuditEventView;
+import cbcoder.webapp.Audit.services.AuditService;
+import cbcoder.webapp.Users.model.DTOs.CursorPage;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("audit")
+public class AuditController {
+
+	private final AuditService auditService;
+
+	public AuditController(AuditService auditService) {
+		this.auditService = auditService;
+	}
+
+	/**
+	 * Scroll the audit events of a time range, newest first. Pass no cursor for the first page,
+	 * then the nextCursor of each response until it is null. Events are written in batches, the last few
+	 * hundred milliseconds may not be visible yet.
+	 * @param from Instant from (ISO-8601) start of the range, inclusive.
+	 * @param to Instant to (ISO-8601, default value is now) end of the range, exclusive.
+	 * @param cursor String cursor, the nextCursor of the previous page.
+	 * @param pageSize Integer pageSize (default value is 50) number of events per page, at most 500.
+	 * @return ResponseEntity<CursorPage<AuditEventView>> The events of the page and the cursor of the next page.
+	 */
+	@GetMapping("/events")
+	@PreAuthorize("hasAuthority('ROLE_SUPERADMIN')")
+	public ResponseEntity<CursorPage<AuditEventView>> getEvents(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "50") Integer pageSize) {
+		return ResponseEntity.ok(auditService.findEvents(from, to != null ? to : Instant.now(), cursor, pageSize));
+	}
+}
@@ -0,0 +1,33 @@
+package cbcoder.webapp.Audit.model;
+
+import cbcoder.webapp.Exceptions.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of a scroll through the audit trail, newest first: the time and id of the last event already returned.
+ * It is sent to clients as an opaque URL-safe token.
+ * @param lastOccurredAt The time of the last event of the previous page.
+ * @param lastId The id of the last event of the previous page.
+ */
+public record AuditCursor(Instant lastOccurredAt, Long lastId) {
+	private static final String SEPARATOR = "|";
+
+	public String encode() {
+		String raw = lastOccurredAt + SEPARATOR + lastId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static AuditCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\|", 2);
+			return new AuditCursor(Instant.parse(parts[0]), Long.valueOf(parts[1]));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+			throw new InvalidPageRequestException("Invalid cursor");
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package cbcoder.webapp.Audit.model;
+
+import cbcoder.webapp.Audit.model.enums.AuditAction;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One row of the audit trail. Rows are inserted in batches by the audit writer and never updated.
+ */
+@Entity
+@Table(name = "audit_events", indexes = {
+		@Index(name = "idx_audit_events_occurred_at_id", columnList = "occurred_at, id")
+})
+public class AuditEvent {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "occurred_at", nullable = false, updatable = false)
+	private Instant occurredAt;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "action", nullable = false, updatable = false, length = 32)
+	private AuditAction action;
+
+	/**
+	 * The email of the user who did the action.
+	 */
+	@Column(name = "actor", updatable = false)
+	private String actor;
+
+	/**
+	 * The email of the user the action was done to.
+	 */
+	@Column(name = "subject", updatable = false)
+	private String subject;
+
+	@Column(name = "detail", updatable = false)
+	private String detail;
+
+	protected AuditEvent() {
+	}
+
+	public AuditEvent(Instant occurredAt, AuditAction action, String actor, String subject, String detail) {
+		this.occurredAt = occurredAt;
+		this.action = action;
+		this.actor = actor;
+		this.subject = subject;
+		this.detail = detail;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Instant getOccurredAt() {
+		return occurredAt;
+	}
+
+	public AuditAction getAction() {
+		return action;
+	}
+
+	public String getActor() {
+		return actor;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public String getDetail() {
+		return detail;
+	}
+}
@@ -0,0 +1,11 @@
+package cbcoder.webapp.Audit.model.DTOs;
+
+import cbcoder.webapp.Audit.model.enums.AuditAction;
+
+import java.time.Instant;
+
+/**
+ * Read model of an audit event, filled straight from a query.
+ */
+public record AuditEventView(Long id, Instant occurredAt, AuditAction action, String actor, String subject, String detail) {
+}
@@ -0,0 +1,9 @@
+package cbcoder.webapp.Audit.model.enums;
+
+public enum AuditAction {
+	LOGIN,
+	TOKEN_REFRESHED,
+	REFRESH_TOKEN_REUSED,
+	ROLE_GRANTED,
+	ROLE_REVOKED
+}
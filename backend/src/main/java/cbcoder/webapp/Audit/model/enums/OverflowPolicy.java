@@ -0,0 +1,19 @@
+package cbcoder.webapp.Audit.model.enums;
+
+/**
+ * What recording an audit event does when the buffer is full.
+ */
+public enum OverflowPolicy {
+	/**
+	 * Discard the event and count it, the caller never waits.
+	 */
+	DROP,
+	/**
+	 * Wait until the writer makes room.
+	 */
+	BLOCK,
+	/**
+	 * Insert the event from the calling thread, nothing is lost and the caller pays one insert.
+	 */
+	CALLER_RUNS
+}
@@ -0,0 +1,27 @@
+package cbcoder.webapp.Audit.repositories;
+
+import cbcoder.webapp.Audit.model.AuditEvent;
+import cbcoder.webapp.Audit.model.DTOs.AuditEventView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+	String VIEW = "select new cbcoder.webapp.Audit.model.DTOs.AuditEventView(e.id, e.occurredAt, e.action, e.actor, e.subject, e.detail) from AuditEvent e"
+			+ " where e.occurredAt >= :from and e.occurredAt < :to";
+
+	/**
+	 * Keyset queries of the audit trail, newest first. Both seek the (occurred_at, id) index, so every page costs the same.
+	 * The page size is the limit of the pageable, its page number must be 0.
+	 */
+	@Query(VIEW + " order by e.occurredAt desc, e.id desc")
+	List<AuditEventView> scrollFirst(Instant from, Instant to, Pageable pageable);
+
+	@Query(VIEW + " and (e.occurredAt, e.id) < (:occurredAt, :id) order by e.occurredAt desc, e.id desc")
+	List<AuditEventView> scrollAfter(Instant from, Instant to, Instant occurredAt, Long id, Pageable pageable);
+}
@@ -0,0 +1,34 @@
+package cbcoder.webapp.Audit.repositories;
+
+import cbcoder.webapp.Audit.model.AuditEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Batched inserts of the audit writer, one round trip per batch instead of one per event.
+ */
+@Repository
+public class AuditJdbcRepository {
+	private static final String INSERT_EVENT = """
+			INSERT INTO audit_events (occurred_at, action, actor, subject, detail)
+			VALUES (?, ?, ?, ?, ?)""";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public AuditJdbcRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public void insertAll(List<AuditEvent> events) {
+		jdbcTemplate.batchUpdate(INSERT_EVENT, events, events.size(), (ps, event) -> {
+			ps.setObject(1, event.getOccurredAt().atOffset(ZoneOffset.UTC));
+			ps.setString(2, event.getAction().name());
+			ps.setString(3, event.getActor());
+			ps.setString(4, event.getSubject());
+			ps.setString(5, event.getDetail());
+		});
+	}
+}
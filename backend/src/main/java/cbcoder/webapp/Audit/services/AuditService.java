@@ -0,0 +1,13 @@
+package cbcoder.webapp.Audit.services;
+
+import cbcoder.webapp.Audit.model.DTOs.AuditEventView;
+import cbcoder.webapp.Audit.model.enums.AuditAction;
+import cbcoder.webapp.Users.model.DTOs.CursorPage;
+
+import java.time.Instant;
+
+public interface AuditService {
+	void record(AuditAction action, String subject, String detail);
+	void record(AuditAction action, String actor, String subject, String detail);
+	CursorPage<AuditEventView> findEvents(Instant from, Instant to, String cursor, int pageSize);
+}
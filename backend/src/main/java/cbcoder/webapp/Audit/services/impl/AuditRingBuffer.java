@@ -0,0 +1,86 @@
+package cbcoder.webapp.Audit.services.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer, an array of slots each with a sequence number.
+ * A producer claims a slot with one CAS on the tail, writes the element, then publishes it by advancing the sequence
+ * of the slot. The consumer reads a slot once its sequence says it is published and hands it back for the next lap.
+ * A full buffer is reported to the producer instead of waiting, the caller decides what to do.
+ */
+final class AuditRingBuffer<E> {
+	private final AtomicReferenceArray<E> elements;
+	private final AtomicLongArray sequences;
+	private final int capacity;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+
+	AuditRingBuffer(int capacity) {
+		if (capacity < 2) {
+			throw new IllegalArgumentException("The audit buffer needs at least 2 slots");
+		}
+		this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.elements = new AtomicReferenceArray<>(this.capacity);
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * @return false if the buffer is full.
+	 */
+	boolean offer(E element) {
+		while (true) {
+			long position = tail.get();
+			int index = (int) position & mask;
+			long available = sequences.get(index) - position;
+			if (available < 0) {
+				return false;
+			}
+			if (available == 0 && tail.compareAndSet(position, position + 1)) {
+				elements.set(index, element);
+				sequences.set(index, position + 1);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Move up to max published elements to the sink, in the order they were offered. Only one thread may drain.
+	 * @return The number of elements moved.
+	 */
+	int drainTo(List<? super E> sink, int max) {
+		long position = head.get();
+		int drained = 0;
+		while (drained < max) {
+			int index = (int) position & mask;
+			if (sequences.get(index) != position + 1) {
+				break;
+			}
+			sink.add(elements.get(index));
+			elements.set(index, null);
+			sequences.set(index, position + capacity);
+			position++;
+			drained++;
+		}
+		head.set(position);
+		return drained;
+	}
+
+	/**
+	 * @return The number of claimed slots, an estimate while producers are running.
+	 */
+	int size() {
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+	int capacity() {
+		return capacity;
+	}
+}
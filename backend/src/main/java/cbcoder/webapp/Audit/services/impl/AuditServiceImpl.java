@@ -0,0 +1,273 @@
+package cbcoder.webapp.Audit.services.impl;
+
+import cbcoder.webapp.Audit.model.AuditCursor;
+import cbcoder.webapp.Audit.model.AuditEvent;
+import cbcoder.webapp.Audit.model.DTOs.AuditEventView;
+import cbcoder.webapp.Audit.model.enums.AuditAction;
+import cbcoder.webapp.Audit.model.enums.OverflowPolicy;
+import cbcoder.webapp.Audit.repositories.AuditEventRepository;
+import cbcoder.webapp.Audit.repositories.AuditJdbcRepository;
+import cbcoder.webapp.Audit.services.AuditService;
+import cbcoder.webapp.Exceptions.InvalidPageRequestException;
+import cbcoder.webapp.Users.model.DTOs.CursorPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records audit events without a database round trip on the request thread. Events go into a bounded lock-free
+ * ring buffer, a single background writer drains it and inserts the events in JDBC batches, when a batch is full
+ * or every flush interval. What happens to an event when the buffer is full is the overflow policy.
+ * <p>
+ * The writer is started and stopped with the application context, after the web server has stopped taking requests.
+ * Stopping closes the buffer to new events, then the writer waits for the producers already inside, flushes whatever
+ * is left and exits, so the buffer never has a second consumer. Events recorded while the writer is not running are
+ * inserted directly.
+ */
+@Service
+public class AuditServiceImpl implements AuditService, SmartLifecycle {
+	private static final Logger logger = LoggerFactory.getLogger(AuditServiceImpl.class);
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final AuditJdbcRepository auditJdbcRepository;
+	private final AuditEventRepository auditEventRepository;
+	private final AuditRingBuffer<AuditEvent> buffer;
+	private final int batchSize;
+	private final long flushIntervalNanos;
+	private final OverflowPolicy overflowPolicy;
+	private final Counter written;
+	private final Counter dropped;
+	private final Counter failed;
+	// Producers between their check of running and their offer, the writer waits for them before its last flush.
+	private final AtomicInteger producers = new AtomicInteger();
+	private volatile boolean running;
+	private volatile Thread writer;
+
+	public AuditServiceImpl(AuditJdbcRepository auditJdbcRepository, AuditEventRepository auditEventRepository,
+	                        @Value("${webapp.audit.buffer-capacity:8192}") int bufferCapacity,
+	                        @Value("${webapp.audit.batch-size:500}") int batchSize,
+	                        @Value("${webapp.audit.flush-interval:200ms}") Duration flushInterval,
+	                        @Value("${webapp.audit.overflow-policy:CALLER_RUNS}") OverflowPolicy overflowPolicy,
+	                        MeterRegistry meterRegistry) {
+		this.auditJdbcRepository = auditJdbcRepository;
+		this.auditEventRepository = auditEventRepository;
+		this.buffer = new AuditRingBuffer<>(bufferCapacity);
+		this.batchSize = batchSize;
+		this.flushIntervalNanos = flushInterval.toNanos();
+		this.overflowPolicy = overflowPolicy;
+		this.written = events(meterRegistry, "written");
+		this.dropped = events(meterRegistry, "dropped");
+		this.failed = events(meterRegistry, "failed");
+		Gauge.builder("webapp.audit.buffer.size", buffer, AuditRingBuffer::size)
+				.description("Audit events waiting to be written")
+				.register(meterRegistry);
+	}
+
+	private static Counter events(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("webapp.audit.events")
+				.description("Audit events by what became of them")
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Record an action of the authenticated user.
+	 * @param action What was done.
+	 * @param subject The email of the user it was done to.
+	 * @param detail Free text, such as the role that was granted.
+	 */
+	@Override
+	public void record(AuditAction action, String subject, String detail) {
+		record(action, currentActor(), subject, detail);
+	}
+
+	@Override
+	public void record(AuditAction action, String actor, String subject, String detail) {
+		AuditEvent event = new AuditEvent(Instant.now(), action, actor, subject, detail);
+		if (!enqueue(event)) {
+			writeNow(event);
+		}
+	}
+
+	/**
+	 * Hand the event to the writer, or drop it, according to the overflow policy.
+	 * @return false if the caller must write the event itself.
+	 */
+	private boolean enqueue(AuditEvent event) {
+		producers.incrementAndGet();
+		try {
+			if (!running) {
+				return false;
+			}
+			if (buffer.offer(event)) {
+				if (buffer.size() >= batchSize) {
+					LockSupport.unpark(writer);
+				}
+				return true;
+			}
+			return switch (overflowPolicy) {
+				case DROP -> {
+					dropped.increment();
+					yield true;
+				}
+				case CALLER_RUNS -> false;
+				case BLOCK -> {
+					boolean offered;
+					while (!(offered = buffer.offer(event)) && running) {
+						LockSupport.unpark(writer);
+						LockSupport.parkNanos(BLOCK_PARK_NANOS);
+					}
+					yield offered;
+				}
+			};
+		} finally {
+			producers.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Get one page of the events that occurred in [from, to), newest first.
+	 * @param from The start of the time range, inclusive.
+	 * @param to The end of the time range, exclusive.
+	 * @param cursor The cursor returned with the previous page, null or empty for the first page.
+	 * @param pageSize The number of events per page.
+	 * @return CursorPage with the events and the cursor of the next page, null on the last page.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<AuditEventView> findEvents(Instant from, Instant to, String cursor, int pageSize) {
+		if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+			throw new InvalidPageRequestException("The page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		if (!from.isBefore(to)) {
+			throw new InvalidPageRequestException("The start of the time range must be before its end");
+		}
+		Pageable limit = PageRequest.of(0, pageSize + 1);
+		AuditCursor position = cursor == null || cursor.isEmpty() ? null : AuditCursor.decode(cursor);
+		List<AuditEventView> events = position == null
+				? auditEventRepository.scrollFirst(from, to, limit)
+				: auditEventRepository.scrollAfter(from, to, position.lastOccurredAt(), position.lastId(), limit);
+		if (events.size() <= pageSize) {
+			return new CursorPage<>(events, null, pageSize);
+		}
+		List<AuditEventView> page = List.copyOf(events.subList(0, pageSize));
+		AuditEventView last = page.getLast();
+		return new CursorPage<>(page, new AuditCursor(last.occurredAt(), last.id()).encode(), pageSize);
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::writeLoop);
+	}
+
+	/**
+	 * Stop taking events into the buffer and wait for the writer to flush what is left.
+	 * If it does not finish in time it keeps writing in the background, the buffer is never drained from here.
+	 */
+	@Override
+	public void stop() {
+		running = false;
+		Thread current = writer;
+		if (current == null) {
+			return;
+		}
+		LockSupport.unpark(current);
+		try {
+			current.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (current.isAlive()) {
+			logger.warn("The audit writer is still flushing, {} events left in the buffer", buffer.size());
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Started before and stopped after the web server, so no request can record an event the writer will not see.
+	 */
+	@Override
+	public int getPhase() {
+		return DEFAULT_PHASE - 4096;
+	}
+
+	/**
+	 * Sleep for the flush interval, or until a producer sees a full batch waiting, then write until less than a batch is left.
+	 * Once stopped, wait for the producers that saw the writer running, they may still offer, then write everything.
+	 */
+	private void writeLoop() {
+		while (running) {
+			LockSupport.parkNanos(flushIntervalNanos);
+			while (running && flush() == batchSize) {
+				// keep up with a burst
+			}
+		}
+		while (producers.get() > 0) {
+			LockSupport.parkNanos(BLOCK_PARK_NANOS);
+		}
+		while (flush() > 0) {
+			// drain until empty
+		}
+	}
+
+	/**
+	 * Write one batch from the buffer. Only called by the writer, the single consumer of the buffer.
+	 * @return The number of events taken from the buffer.
+	 */
+	private int flush() {
+		List<AuditEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+		int drained = buffer.drainTo(batch, batchSize);
+		if (drained > 0) {
+			write(batch);
+		}
+		return drained;
+	}
+
+	private void writeNow(AuditEvent event) {
+		write(List.of(event));
+	}
+
+	private void write(List<AuditEvent> events) {
+		try {
+			auditJdbcRepository.insertAll(events);
+			written.increment(events.size());
+		} catch (DataAccessException e) {
+			failed.increment(events.size());
+			logger.error("Could not write {} audit events", events.size(), e);
+		}
+	}
+
+	private static String currentActor() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+			return null;
+		}
+		return authentication.getName();
+	}
+}
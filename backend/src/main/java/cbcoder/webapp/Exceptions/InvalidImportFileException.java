@@ -0,0 +1,7 @@
+package cbcoder.webapp.Exceptions;
+
+public class InvalidImportFileException extends RuntimeException{
+	public InvalidImportFileException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package cbcoder.webapp.Exceptions;
+
+public class InvalidPageRequestException extends RuntimeException{
+	public InvalidPageRequestException(String message) {
+		super(message);
+	}
+}
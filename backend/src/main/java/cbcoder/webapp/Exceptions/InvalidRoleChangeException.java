@@ -0,0 +1,7 @@
+package cbcoder.webapp.Exceptions;
+
+public class InvalidRoleChangeException extends RuntimeException{
+	public InvalidRoleChangeException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package cbcoder.webapp.Exceptions;
+
+public class ServiceBusyException extends RuntimeException{
+	public ServiceBusyException(String message) {
+		super(message);
+	}
+}
@@ -1,6 +1,10 @@
 package cbcoder.webapp.Exceptions.handler;
 
 import cbcoder.webapp.Exceptions.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -14,9 +18,16 @@ import java.util.Map;
 public class ExceptionsHandler {
 	private static final String MESSAGE = "message";
 
+	private final MeterRegistry meterRegistry;
+
+	public ExceptionsHandler(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
 	@ResponseStatus(HttpStatus.BAD_REQUEST)
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public Map<String, String> handleValidationExceptions(MethodArgumentNotValidException ex) {
+		count(ex, HttpStatus.BAD_REQUEST);
 		Map<String, String> errors = new HashMap<>();
 		ex.getBindingResult()
 				.getFieldErrors()
@@ -27,6 +38,7 @@ public class ExceptionsHandler {
 	@ResponseStatus(HttpStatus.NOT_FOUND)
 	@ExceptionHandler(UserNotFoundException.class)
 	public Map<String, String> userNotFoundException(UserNotFoundException ex) {
+		count(ex, HttpStatus.NOT_FOUND);
 		Map<String, String> errors = new HashMap<>();
 		errors.put(MESSAGE, ex.getMessage());
 		return errors;
@@ -35,6 +47,7 @@ public class ExceptionsHandler {
 	@ResponseStatus(HttpStatus.BAD_REQUEST)
 	@ExceptionHandler(UserAlreadyExistsException.class)
 	public Map<String, String> userAlreadyExistsException(UserAlreadyExistsException ex) {
+		count(ex, HttpStatus.BAD_REQUEST);
 		Map<String, String> errors = new HashMap<>();
 		errors.put(MESSAGE, ex.getMessage());
 		return errors;
@@ -43,6 +56,7 @@ public class ExceptionsHandler {
 	@ResponseStatus(HttpStatus.NOT_FOUND)
 	@ExceptionHandler(RoleNotFoundException.class)
 	public Map<String, String> roleNotFoundException(RoleNotFoundException ex) {
+		count(ex, HttpStatus.NOT_FOUND);
 		Map<String, String> errors = new HashMap<>();
 		errors.put(MESSAGE, ex.getMessage());
 		return errors;
@@ -51,6 +65,7 @@ public class ExceptionsHandler {
 	@ResponseStatus(HttpStatus.LENGTH_REQUIRED)
 	@ExceptionHandler(PasswordLengthNotValidException.class)
 	public Map<String, String> passwordLengthNotValidException(PasswordLengthNotValidException ex) {
+		count(ex, HttpStatus.LENGTH_REQUIRED);
 		Map<String, String> errors = new HashMap<>();
 		errors.put(MESSAGE, ex.getMessage());
 		return errors;
@@ -59,6 +74,7 @@ public class ExceptionsHandler {
 	@ResponseStatus(HttpStatus.UNAUTHORIZED)
 	@ExceptionHandler(NotAuthorizedAccessException.class)
 	public Map<String, String> notAuthorizedAccessException(NotAuthorizedAccessException ex) {
+		count(ex, HttpStatus.UNAUTHORIZED);
 		Map<String, String> errors = new HashMap<>();
 		errors.put(MESSAGE, ex.getMessage());
 		return errors;
@@ -67,10 +83,72 @@ public class ExceptionsHandler {
 	@ResponseStatus(HttpStatus.BAD_REQUEST)
 	@ExceptionHandler(EmailNotBindingException.class)
 	public Map<String, String> emailNotBindingException(EmailNotBindingException ex) {
+		count(ex, HttpStatus.BAD_REQUEST);
+		Map<String, String> errors = new HashMap<>();
+		errors.put(MESSAGE, ex.getMessage());
+		return errors;
+	}
+
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(InvalidPageRequestException.class)
+	public Map<String, String> invalidPageRequestException(InvalidPageRequestException ex) {
+		count(ex, HttpStatus.BAD_REQUEST);
 		Map<String, String> errors = new HashMap<>();
 		errors.put(MESSAGE, ex.getMessage());
 		return errors;
 	}
 
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(InvalidImportFileException.class)
+	public Map<String, String> invalidImportFileException(InvalidImportFileException ex) {
+		count(ex, HttpStatus.BAD_REQUEST);
+		Map<String, String> errors = new HashMap<>();
+		errors.put(MESSAGE, ex.getMessage());
+		return errors;
+	}
 
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(InvalidRoleChangeException.class)
+	public Map<String, String> invalidRoleChangeException(InvalidRoleChangeException ex) {
+		count(ex, HttpStatus.BAD_REQUEST);
+		Map<String, String> errors = new HashMap<>();
+		errors.put(MESSAGE, ex.getMessage());
+		return errors;
+	}
+
+	@ResponseStatus(HttpStatus.CONFLICT)
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public Map<String, String> optimisticLockingFailureException(OptimisticLockingFailureException ex) {
+		count(ex, HttpStatus.CONFLICT);
+		Map<String, String> errors = new HashMap<>();
+		errors.put(MESSAGE, "The resource was modified by another request, reload it and try again");
+		return errors;
+	}
+
+	@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+	@ExceptionHandler(TooManyRequestsException.class)
+	public Map<String, String> tooManyRequestsException(TooManyRequestsException ex, HttpServletResponse response) {
+		count(ex, HttpStatus.TOO_MANY_REQUESTS);
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+		Map<String, String> errors = new HashMap<>();
+		errors.put(MESSAGE, ex.getMessage());
+		return errors;
+	}
+
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	@ExceptionHandler(ServiceBusyException.class)
+	public Map<String, String> serviceBusyException(ServiceBusyException ex) {
+		count(ex, HttpStatus.SERVICE_UNAVAILABLE);
+		Map<String, String> errors = new HashMap<>();
+		errors.put(MESSAGE, ex.getMessage());
+		return errors;
+	}
+
+	/**
+	 * One counter per handled exception and status, webapp.errors.
+	 */
+	private void count(Exception ex, HttpStatus status) {
+		meterRegistry.counter("webapp.errors", "exception", ex.getClass().getSimpleName(), "status", String.valueOf(status.value()))
+				.increment();
+	}
 }
@@ -0,0 +1,73 @@
+package cbcoder.webapp.GlobalConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Logs every virtual thread that stays pinned to its carrier longer than the threshold, typically a blocking call
+ * inside a synchronized block of the JDBC driver, the connection pool or our own code.
+ * Uses the JFR jdk.VirtualThreadPinned event, so it needs no JVM flag and has no cost when nothing is pinned.
+ * Enabled with webapp.threads.pinning-diagnostics.enabled, which the virtual-threads profile turns on.
+ */
+@Component
+@ConditionalOnProperty(name = "webapp.threads.pinning-diagnostics.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+	private static final int STACK_DEPTH = 8;
+
+	private final Duration threshold;
+	private final Counter pinnedCounter;
+	private RecordingStream recordingStream;
+
+	public VirtualThreadPinningMonitor(@Value("${webapp.threads.pinning-diagnostics.threshold:20ms}") Duration threshold,
+	                                   MeterRegistry meterRegistry) {
+		this.threshold = threshold;
+		this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+				.description("Virtual threads pinned to their carrier longer than the diagnostics threshold")
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		try {
+			recordingStream = new RecordingStream();
+			recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+			recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+			recordingStream.startAsync();
+			logger.info("Virtual thread pinning diagnostics started, threshold {}", threshold);
+		} catch (RuntimeException e) {
+			logger.warn("Virtual thread pinning diagnostics are not available on this JVM", e);
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		if (recordingStream != null) {
+			recordingStream.close();
+		}
+	}
+
+	private void onPinned(RecordedEvent event) {
+		pinnedCounter.increment();
+		String stack = event.getStackTrace() == null ? "no stack trace" : event.getStackTrace().getFrames().stream()
+				.limit(STACK_DEPTH)
+				.map(RecordedFrame::getMethod)
+				.map(method -> method.getType().getName() + "." + method.getName())
+				.collect(Collectors.joining("\n\tat "));
+		logger.warn("Virtual thread pinned for {} ms\n\tat {}", event.getDuration().toMillis(), stack);
+	}
+}
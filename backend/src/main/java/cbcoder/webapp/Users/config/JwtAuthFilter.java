@@ -1,13 +1,18 @@
 package cbcoder.webapp.Users.config;
 
+import cbcoder.webapp.Users.model.VerifiedToken;
+import cbcoder.webapp.Users.services.TokenRevocationService;
+import cbcoder.webapp.Users.services.TokenVersionService;
 import cbcoder.webapp.Users.services.UserSecurityService;
 import cbcoder.webapp.Users.services.impl.JwtServiceImpl;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,10 +26,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
 	private final JwtServiceImpl jwtService;
 	private final UserSecurityService userSecurityService;
+	private final VerifiedTokenCache verifiedTokenCache;
+	private final TokenVersionService tokenVersionService;
+	private final TokenRevocationService tokenRevocationService;
 
-	public JwtAuthFilter(JwtServiceImpl jwtService, UserSecurityService userDetails) {
+	public JwtAuthFilter(JwtServiceImpl jwtService, UserSecurityService userDetails, VerifiedTokenCache verifiedTokenCache,
+	                     TokenVersionService tokenVersionService, TokenRevocationService tokenRevocationService) {
 		this.jwtService = jwtService;
 		this.userSecurityService = userDetails;
+		this.verifiedTokenCache = verifiedTokenCache;
+		this.tokenVersionService = tokenVersionService;
+		this.tokenRevocationService = tokenRevocationService;
 	}
 
 	@Override
@@ -33,7 +45,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 			@NonNull HttpServletResponse response,
 			@NonNull FilterChain filterChain) throws ServletException, IOException {
 		final String jwt;
-		final String userEmail;
+		final VerifiedToken token;
 		final String authorizationHeader = request.getHeader("Authorization");
 		if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
 			filterChain.doFilter(request, response);
@@ -41,17 +53,59 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 		}
 
 		jwt = authorizationHeader.substring(7);
-		userEmail = jwtService.getUsername(jwt);
-		if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-			UserDetails userDetails = userSecurityService.userDetailsService().loadUserByUsername(userEmail);
-			if (jwtService.validateToken(jwt, userDetails)) {
-				SecurityContext security = SecurityContextHolder.createEmptyContext();
-				UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-						userDetails, null, userDetails.getAuthorities());
-				security.setAuthentication(authToken);
-				SecurityContextHolder.setContext(security);
+		VerifiedTokenCache.Entry cached = verifiedTokenCache.get(jwt);
+		if (cached != null) {
+			if (SecurityContextHolder.getContext().getAuthentication() == null
+					&& !tokenRevocationService.isRevoked(cached.token().id())
+					&& isCurrent(cached.token())) {
+				authenticate(cached.userDetails());
+			}
+			filterChain.doFilter(request, response);
+			return;
+		}
+		try {
+			token = jwtService.verifyToken(jwt);
+		} catch (JwtException | IllegalArgumentException e) {
+			// Invalid, tampered or expired token: continue unauthenticated and let the security rules reject it.
+			filterChain.doFilter(request, response);
+			return;
+		}
+		// A refresh token, or a token issued before the user's last password or role change, does not authenticate.
+		if (!token.isAccessToken() || tokenRevocationService.isRevoked(token.id()) || !isCurrent(token)) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		if (token.isSelfContained()) {
+			// Self-contained token: authorities come from the claims, the user is not loaded.
+			if (SecurityContextHolder.getContext().getAuthentication() == null) {
+				setAuthentication(new UsernamePasswordAuthenticationToken(
+						token.subject(), null, AuthorityUtils.createAuthorityList(token.roles())));
+			}
+		} else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+			UserDetails userDetails = userSecurityService.userDetailsService().loadUserByUsername(token.subject());
+			if (jwtService.isTokenValid(token, userDetails)) {
+				verifiedTokenCache.put(jwt, token, userDetails);
+				authenticate(userDetails);
 			}
 		}
 		filterChain.doFilter(request, response);
 	}
+
+	/**
+	 * @return true if the token names a user and carries the user's current token version.
+	 */
+	private boolean isCurrent(VerifiedToken token) {
+		return token.subject() != null && token.tokenVersion() != null
+				&& tokenVersionService.isCurrent(token.subject(), token.tokenVersion());
+	}
+
+	private void authenticate(UserDetails userDetails) {
+		setAuthentication(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+	}
+
+	private void setAuthentication(UsernamePasswordAuthenticationToken authToken) {
+		SecurityContext security = SecurityContextHolder.createEmptyContext();
+		security.setAuthentication(authToken);
+		SecurityContextHolder.setContext(security);
+	}
 }
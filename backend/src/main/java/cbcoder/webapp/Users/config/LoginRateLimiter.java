@@ -0,0 +1,175 @@
+package cbcoder.webapp.Users.config;
+
+import cbcoder.webapp.Exceptions.TooManyRequestsException;
+import cbcoder.webapp.Users.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets in front of login and registration, keyed by client IP and by email, so a burst of attempts is
+ * rejected before it costs a BCrypt verification. Each failed login is charged extra tokens to both keys.
+ * <p>
+ * Keys are hashed into a fixed number of slots, so memory is bounded whatever the number of clients: two keys that
+ * share a slot share a bucket, which can only make the limit stricter. Each slot is a single long updated with CAS,
+ * there is no lock.
+ */
+@Component
+public class LoginRateLimiter {
+
+	private final boolean enabled;
+	private final Buckets ipBuckets;
+	private final Buckets emailBuckets;
+	private final int failurePenalty;
+	private final LongSupplier nanoClock;
+	private final Counter allowed;
+	private final Counter rejectedByIp;
+	private final Counter rejectedByEmail;
+	private final Counter failures;
+
+	@Autowired
+	public LoginRateLimiter(@Value("${webapp.security.rate-limit.enabled:true}") boolean enabled,
+	                        @Value("${webapp.security.rate-limit.slots:65536}") int slots,
+	                        @Value("${webapp.security.rate-limit.ip.capacity:20}") int ipCapacity,
+	                        @Value("${webapp.security.rate-limit.ip.per-minute:30}") int ipPerMinute,
+	                        @Value("${webapp.security.rate-limit.email.capacity:5}") int emailCapacity,
+	                        @Value("${webapp.security.rate-limit.email.per-minute:5}") int emailPerMinute,
+	                        @Value("${webapp.security.rate-limit.failure-penalty:2}") int failurePenalty,
+	                        MeterRegistry meterRegistry) {
+		this(enabled, slots, ipCapacity, ipPerMinute, emailCapacity, emailPerMinute, failurePenalty, meterRegistry, System::nanoTime);
+	}
+
+	LoginRateLimiter(boolean enabled, int slots, int ipCapacity, int ipPerMinute, int emailCapacity, int emailPerMinute,
+	                 int failurePenalty, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+		this.enabled = enabled;
+		this.ipBuckets = new Buckets(slots, ipCapacity, ipPerMinute);
+		this.emailBuckets = new Buckets(slots, emailCapacity, emailPerMinute);
+		this.failurePenalty = failurePenalty;
+		long origin = nanoClock.getAsLong();
+		this.nanoClock = () -> nanoClock.getAsLong() - origin;
+		this.allowed = attempts(meterRegistry, "allowed");
+		this.rejectedByIp = attempts(meterRegistry, "rejected_ip");
+		this.rejectedByEmail = attempts(meterRegistry, "rejected_email");
+		this.failures = attempts(meterRegistry, "failed");
+	}
+
+	private static Counter attempts(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("webapp.auth.attempts")
+				.description("Login and registration attempts seen by the rate limiter")
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Take one token from the bucket of the IP and, if given, from the bucket of the email.
+	 * The email is only charged once the IP is allowed, so a blocked client cannot drain the bucket of someone else's account.
+	 * @param clientIp The remote address of the request.
+	 * @param email The email the attempt is for, null to charge the IP only.
+	 * @throws TooManyRequestsException if either bucket is empty.
+	 */
+	public void acquire(String clientIp, String email) {
+		if (!enabled) {
+			return;
+		}
+		long now = nanoClock.getAsLong();
+		long wait = ipBuckets.tryAcquire(clientIp, now);
+		if (wait > 0) {
+			rejectedByIp.increment();
+			throw tooManyRequests(wait);
+		}
+		if (email != null) {
+			wait = emailBuckets.tryAcquire(User.normalizeEmail(email), now);
+			if (wait > 0) {
+				rejectedByEmail.increment();
+				throw tooManyRequests(wait);
+			}
+		}
+		allowed.increment();
+	}
+
+	/**
+	 * Charge the failure penalty to both keys after a wrong password.
+	 */
+	public void recordFailure(String clientIp, String email) {
+		if (!enabled) {
+			return;
+		}
+		failures.increment();
+		long now = nanoClock.getAsLong();
+		ipBuckets.penalize(clientIp, failurePenalty, now);
+		if (email != null) {
+			emailBuckets.penalize(User.normalizeEmail(email), failurePenalty, now);
+		}
+	}
+
+	private static TooManyRequestsException tooManyRequests(long waitNanos) {
+		return new TooManyRequestsException("Too many attempts, try again later",
+				Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+	}
+
+	/**
+	 * Token buckets stored as their theoretical arrival time (the generic cell rate algorithm): a slot holds the instant
+	 * at which its bucket will be full again, so taking a token is one compare-and-set and refilling needs no timer.
+	 */
+	static final class Buckets {
+		private final AtomicLongArray fullAt;
+		private final int mask;
+		private final long interval;
+		private final long burst;
+
+		Buckets(int slots, int capacity, int perMinute) {
+			if (capacity < 1 || perMinute < 1) {
+				throw new IllegalArgumentException("Rate limit capacity and rate must be positive");
+			}
+			int size = Integer.highestOneBit(Math.max(slots - 1, 1)) << 1;
+			this.fullAt = new AtomicLongArray(size);
+			this.mask = size - 1;
+			this.interval = TimeUnit.MINUTES.toNanos(1) / perMinute;
+			this.burst = capacity * interval;
+		}
+
+		/**
+		 * @return 0 if a token was taken, otherwise the nanoseconds until one is available.
+		 */
+		long tryAcquire(String key, long now) {
+			int slot = slot(key);
+			while (true) {
+				long current = fullAt.get(slot);
+				long next = Math.max(current, now) + interval;
+				long wait = next - now - burst;
+				if (wait > 0) {
+					return wait;
+				}
+				if (fullAt.compareAndSet(slot, current, next)) {
+					return 0;
+				}
+			}
+		}
+
+		/**
+		 * Take tokens the bucket may not have. The debt is capped at one full bucket, a key is never locked out
+		 * for longer than twice the time the bucket takes to refill.
+		 */
+		void penalize(String key, int tokens, long now) {
+			int slot = slot(key);
+			while (true) {
+				long current = fullAt.get(slot);
+				long next = Math.min(Math.max(current, now) + tokens * interval, now + 2 * burst);
+				if (next <= current || fullAt.compareAndSet(slot, current, next)) {
+					return;
+				}
+			}
+		}
+
+		private int slot(String key) {
+			int hash = key == null ? 0 : key.hashCode() * 0x9E3779B9;
+			return (hash ^ (hash >>> 16)) & mask;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package cbcoder.webapp.Users.config;
+
+import cbcoder.webapp.Users.model.Role;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.repositories.RoleRepository;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * The roles seeded in data.sql, read once at startup and kept in memory.
+ * Roles never change at runtime, so resolving a role by name or by id needs no database round trip.
+ * Startup fails if the roles table does not hold exactly one row per RoleEnum with the expected id.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class RoleRegistry {
+
+	private final Map<RoleEnum, Role> byName = new EnumMap<>(RoleEnum.class);
+	private final Role[] byId;
+
+	public RoleRegistry(RoleRepository roleRepository) {
+		List<Role> roles = roleRepository.findAll();
+		RoleEnum[] values = RoleEnum.values();
+		this.byId = new Role[values.length + 1];
+		for (Role role : roles) {
+			RoleEnum name = role.getRoleName();
+			if (name == null || !Objects.equals(role.getRoleId(), name.getId())) {
+				throw new IllegalStateException("Role " + role + " does not match RoleEnum, expected id " + (name == null ? null : name.getId()));
+			}
+			if (byName.put(name, role) != null) {
+				throw new IllegalStateException("Duplicate role " + name + " in the roles table");
+			}
+			byId[Math.toIntExact(role.getRoleId())] = role;
+		}
+		if (byName.size() != values.length) {
+			EnumSet<RoleEnum> missing = EnumSet.allOf(RoleEnum.class);
+			missing.removeAll(byName.keySet());
+			throw new IllegalStateException("Roles missing from the roles table: " + missing);
+		}
+	}
+
+	public Role get(RoleEnum roleName) {
+		return byName.get(roleName);
+	}
+
+	public Optional<Role> findByRoleId(Long roleId) {
+		if (roleId == null || roleId < 1 || roleId >= byId.length) {
+			return Optional.empty();
+		}
+		return Optional.of(byId[roleId.intValue()]);
+	}
+}
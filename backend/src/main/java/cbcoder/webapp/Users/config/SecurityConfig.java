@@ -1,12 +1,17 @@
 package cbcoder.webapp.Users.config;
 
 import cbcoder.webapp.Users.services.UserSecurityService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -17,7 +22,12 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -28,10 +38,13 @@ public class SecurityConfig {
 
 	private final JwtAuthFilter jwtAuthFilter;
 	private final UserSecurityService userSecurityService;
+	private final List<String> scrapeAddresses;
 
-	public SecurityConfig(JwtAuthFilter jwtAuthFilter, UserSecurityService userSecurityService) {
+	public SecurityConfig(JwtAuthFilter jwtAuthFilter, UserSecurityService userSecurityService,
+	                      @Value("${webapp.security.prometheus.allowed-addresses:127.0.0.1,::1}") List<String> scrapeAddresses) {
 		this.jwtAuthFilter = jwtAuthFilter;
 		this.userSecurityService = userSecurityService;
+		this.scrapeAddresses = scrapeAddresses;
 	}
 
 	@Bean
@@ -44,8 +57,12 @@ public class SecurityConfig {
 				.authorizeHttpRequests(authorizeRequests ->
 						authorizeRequests
 								.requestMatchers("auth/**").permitAll()
+								.requestMatchers("actuator/health").permitAll()
+								// Scraped by Prometheus without a token, so only from the allowed addresses.
+								.requestMatchers("actuator/prometheus").access(fromAddresses(scrapeAddresses))
 								.requestMatchers("users/**").hasAnyRole("SUPERADMIN", "ADMIN","SALES")
 								.requestMatchers("superadmin/**").hasRole("SUPERADMIN")
+								.requestMatchers("audit/**").hasRole("SUPERADMIN")
 								.anyRequest()
 								.authenticated())
 				.sessionManagement(sessionManagement ->
@@ -54,19 +71,46 @@ public class SecurityConfig {
 				.build();
 	}
 
+	/**
+	 * Grants access to requests whose remote address matches one of the given addresses or CIDR ranges.
+	 */
+	static AuthorizationManager<RequestAuthorizationContext> fromAddresses(List<String> addresses) {
+		List<IpAddressMatcher> matchers = addresses.stream().map(String::trim).map(IpAddressMatcher::new).toList();
+		return (authentication, context) -> new AuthorizationDecision(
+				matchers.stream().anyMatch(matcher -> matcher.matches(context.getRequest())));
+	}
+
 	@Bean
-	public AuthenticationProvider authenticationProvider() {
+	public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
 		DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
 		provider.setUserDetailsService(userSecurityService.userDetailsService());
-		provider.setPasswordEncoder(passwordEncoder());
+		provider.setPasswordEncoder(passwordEncoder);
 		return provider;
 	}
 
+	/**
+	 * The raw BCrypt encoder, for callers that manage their own threads such as the bulk import.
+	 */
 	@Bean
-	public PasswordEncoder passwordEncoder() {
+	public BCryptPasswordEncoder bcryptPasswordEncoder() {
 		return new BCryptPasswordEncoder();
 	}
 
+	/**
+	 * BCrypt encoder whose hashing runs on its own bounded pool, isolated from the servlet threads, see {@link BoundedPasswordEncoder}.
+	 * A pool size of 0 means one thread per available processor.
+	 */
+	@Bean
+	@Primary
+	public PasswordEncoder passwordEncoder(BCryptPasswordEncoder bcryptPasswordEncoder,
+	                                       @Value("${webapp.security.password-hashing.threads:0}") int threads,
+	                                       @Value("${webapp.security.password-hashing.queue-capacity:100}") int queueCapacity,
+	                                       @Value("${webapp.security.password-hashing.timeout:5s}") Duration timeout,
+	                                       MeterRegistry meterRegistry) {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		return new BoundedPasswordEncoder(bcryptPasswordEncoder, poolSize, queueCapacity, timeout, meterRegistry);
+	}
+
 	@Bean
 	public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
 		return configuration.getAuthenticationManager();
@@ -0,0 +1,74 @@
+package cbcoder.webapp.Users.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * One-off migration to case-insensitive emails: stores every email in lower case and adds the unique index on
+ * lower(email) that every lookup by email goes through (see User.email).
+ * Accounts whose emails only differ by case, such as John@x.com and john@x.com, would break the index. They are
+ * reported and the startup stops, unless webapp.users.email-migration.resolve-duplicates is set: then the oldest
+ * account of each group keeps the email, the others are disabled, logged out and renamed to duplicate-{userId}-{email}.
+ * It runs once the schema exists and before any request is served, later startups find the index and do nothing.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "spring.jpa.database", havingValue = "postgresql")
+public class UserEmailMigration implements InitializingBean {
+	private static final Logger logger = LoggerFactory.getLogger(UserEmailMigration.class);
+	private static final String INDEX = "ux_users_email_lower";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final boolean resolveDuplicates;
+
+	public UserEmailMigration(DataSource dataSource,
+	                          @Value("${webapp.users.email-migration.resolve-duplicates:false}") boolean resolveDuplicates) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		this.resolveDuplicates = resolveDuplicates;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		transactionTemplate.executeWithoutResult(status -> migrate());
+	}
+
+	private void migrate() {
+		Boolean done = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, INDEX);
+		if (Boolean.TRUE.equals(done)) {
+			return;
+		}
+		List<String> duplicates = jdbcTemplate.queryForList("""
+				SELECT lower(trim(email)) FROM users GROUP BY lower(trim(email)) HAVING count(*) > 1
+				ORDER BY lower(trim(email))""", String.class);
+		if (!duplicates.isEmpty()) {
+			if (!resolveDuplicates) {
+				throw new IllegalStateException(duplicates.size() + " emails are used by more than one account once case is ignored: "
+						+ duplicates + ". Merge or rename these accounts, or start once with"
+						+ " webapp.users.email-migration.resolve-duplicates=true to keep the oldest account of each email"
+						+ " and disable and rename the others.");
+			}
+			int renamed = jdbcTemplate.update("""
+					UPDATE users u SET email = 'duplicate-' || u.user_id || '-' || lower(trim(u.email)), enabled = false,
+					       token_version = coalesce(u.token_version, 0) + 1
+					WHERE EXISTS (SELECT 1 FROM users o WHERE lower(trim(o.email)) = lower(trim(u.email)) AND o.user_id < u.user_id)""");
+			logger.warn("Disabled and renamed {} accounts whose email only differed by case from an older account: {}",
+					renamed, duplicates);
+		}
+		int lowered = jdbcTemplate.update("UPDATE users SET email = lower(trim(email)) WHERE email <> lower(trim(email))");
+		jdbcTemplate.execute("CREATE UNIQUE INDEX " + INDEX + " ON users (lower(email))");
+		logger.info("Stored {} emails in lower case and created {}", lowered, INDEX);
+	}
+}
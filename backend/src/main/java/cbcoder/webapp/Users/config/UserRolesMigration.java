@@ -0,0 +1,66 @@
+package cbcoder.webapp.Users.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * One-off migration of the old user_roles join table into the users.role_mask column.
+ * The role ids are the fixed ids seeded in data.sql, so role id n becomes bit n - 1 of the mask.
+ * It runs before the EntityManagerFactory, so before any request is served, and adds the column itself.
+ * The join table is kept as user_roles_migrated to check the copy, drop it by hand once verified.
+ * Later startups find no user_roles table and do nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.jpa.database", havingValue = "postgresql")
+public class UserRolesMigration implements InitializingBean {
+	private static final Logger logger = LoggerFactory.getLogger(UserRolesMigration.class);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	public UserRolesMigration(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		// The JPA transaction manager is not available yet, the migration is a plain JDBC transaction.
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		transactionTemplate.executeWithoutResult(status -> migrate());
+	}
+
+	private void migrate() {
+		Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass('user_roles') IS NOT NULL", Boolean.class);
+		if (!Boolean.TRUE.equals(exists)) {
+			return;
+		}
+		jdbcTemplate.execute("ALTER TABLE users ADD COLUMN IF NOT EXISTS role_mask integer NOT NULL DEFAULT 0");
+		int migrated = jdbcTemplate.update("""
+				UPDATE users u SET role_mask = u.role_mask | r.mask
+				FROM (SELECT user_id, bit_or(1 << (role_id - 1)::int) AS mask FROM user_roles GROUP BY user_id) r
+				WHERE u.user_id = r.user_id""");
+		jdbcTemplate.execute("ALTER TABLE user_roles RENAME TO user_roles_migrated");
+		logger.info("Migrated the roles of {} users from user_roles to users.role_mask, the old rows are kept in user_roles_migrated",
+				migrated);
+	}
+
+	/**
+	 * Makes the EntityManagerFactory wait for the migration, as it does for Flyway or Liquibase.
+	 */
+	@Component
+	@ConditionalOnProperty(name = "spring.jpa.database", havingValue = "postgresql")
+	static class EntityManagerFactoryDependsOnUserRolesMigration extends EntityManagerFactoryDependsOnPostProcessor {
+		EntityManagerFactoryDependsOnUserRolesMigration() {
+			super(UserRolesMigration.class);
+		}
+	}
+}
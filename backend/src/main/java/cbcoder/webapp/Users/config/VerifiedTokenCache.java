@@ -0,0 +1,122 @@
+package cbcoder.webapp.Users.config;
+
+import cbcoder.webapp.Users.model.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Optional cache of already verified bearer tokens, keyed by the SHA-256 digest of the token so the raw JWT is never kept in memory.
+ * Each entry holds the authenticated principal and expires together with the token's exp claim.
+ * When disabled (the default) every lookup is a miss and nothing is stored.
+ */
+@Component
+public class VerifiedTokenCache {
+
+	/**
+	 * A cached verification result.
+	 * @param token The claims of the verified token.
+	 * @param userDetails The principal loaded for the token subject.
+	 */
+	public record Entry(VerifiedToken token, UserDetails userDetails) {
+	}
+
+	private final Cache<String, Entry> cache;
+
+	public VerifiedTokenCache(@Value("${webapp.security.jwt.cache.enabled:false}") boolean enabled,
+	                          @Value("${webapp.security.jwt.cache.max-size:10000}") long maxSize,
+	                          MeterRegistry meterRegistry) {
+		if (!enabled) {
+			this.cache = null;
+			return;
+		}
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfter(new Expiry<String, Entry>() {
+					@Override
+					public long expireAfterCreate(String key, Entry entry, long currentTime) {
+						return timeToLive(entry.token().expiration());
+					}
+
+					@Override
+					public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+						return timeToLive(entry.token().expiration());
+					}
+
+					@Override
+					public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+	}
+
+	public boolean isEnabled() {
+		return cache != null;
+	}
+
+	/**
+	 * Get the verification result of a token that was verified before.
+	 * @param jwt The compact JWS string from the Authorization header.
+	 * @return Entry with the token claims and principal, or null if the token is unknown or expired.
+	 */
+	public Entry get(String jwt) {
+		if (cache == null) {
+			return null;
+		}
+		Entry entry = cache.getIfPresent(digest(jwt));
+		if (entry == null || entry.token().isExpired(Instant.now())) {
+			return null;
+		}
+		return entry;
+	}
+
+	public void put(String jwt, VerifiedToken token, UserDetails userDetails) {
+		if (cache != null) {
+			cache.put(digest(jwt), new Entry(token, userDetails));
+		}
+	}
+
+	public void evict(String jwt) {
+		if (cache != null) {
+			cache.invalidate(digest(jwt));
+		}
+	}
+
+	/**
+	 * Drop every cached token of the given user, so their next request is verified and loaded again.
+	 * @param username The username (email) of the changed user.
+	 */
+	public void evictUser(String username) {
+		if (cache != null) {
+			cache.asMap().values().removeIf(entry -> entry.userDetails().getUsername().equals(username));
+		}
+	}
+
+	private static long timeToLive(Instant expiration) {
+		return Math.max(0, Duration.between(Instant.now(), expiration).toNanos());
+	}
+
+	private static String digest(String jwt) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().withoutPadding().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
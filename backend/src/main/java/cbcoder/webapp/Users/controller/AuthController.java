@@ -1,17 +1,19 @@
 package cbcoder.webapp.Users.controller;
 
+import cbcoder.webapp.Users.config.LoginRateLimiter;
+import cbcoder.webapp.Users.mappers.UserMapper;
 import cbcoder.webapp.Users.model.DTOs.JwtAuthResponse;
 import cbcoder.webapp.Users.model.DTOs.RefreshTokenRequest;
 import cbcoder.webapp.Users.model.DTOs.SignInRequest;
 import cbcoder.webapp.Users.model.DTOs.SignUpRequest;
-import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.DTOs.UserView;
 import cbcoder.webapp.Users.services.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -21,24 +23,41 @@ import java.net.URI;
 public class AuthController {
 
 	private final AuthService authService;
+	private final LoginRateLimiter loginRateLimiter;
 
-	public AuthController(AuthService authService) {
+	public AuthController(AuthService authService, LoginRateLimiter loginRateLimiter) {
 		this.authService = authService;
+		this.loginRateLimiter = loginRateLimiter;
 	}
 
+	/**
+	 * Rate limited by client IP and by email, see {@link LoginRateLimiter}, so one address cannot be probed from many IPs.
+	 */
 	@PostMapping("/register")
-	public ResponseEntity<User> register(@RequestBody @Valid SignUpRequest request) {
+	public ResponseEntity<UserView> register(@RequestBody @Valid SignUpRequest request, HttpServletRequest servletRequest) {
+		loginRateLimiter.acquire(servletRequest.getRemoteAddr(), request.email());
 		URI uri = URI.create(
 				ServletUriComponentsBuilder
 						.fromCurrentContextPath()
 						.path("/api/v1/auth/register")
 						.toUriString());
-		return ResponseEntity.created(uri).body(authService.register(request));
+		return ResponseEntity.created(uri).body(UserMapper.toView(authService.register(request)));
 	}
 
+	/**
+	 * Rate limited by client IP and by email before the password is checked, see {@link LoginRateLimiter}.
+	 * A wrong password is charged extra to both.
+	 */
 	@PostMapping("/login")
-	public ResponseEntity<JwtAuthResponse> login(@RequestBody SignInRequest request) {
-		return ResponseEntity.ok(authService.login(request));
+	public ResponseEntity<JwtAuthResponse> login(@RequestBody SignInRequest request, HttpServletRequest servletRequest) {
+		String clientIp = servletRequest.getRemoteAddr();
+		loginRateLimiter.acquire(clientIp, request.email());
+		try {
+			return ResponseEntity.ok(authService.login(request));
+		} catch (AuthenticationException e) {
+			loginRateLimiter.recordFailure(clientIp, request.email());
+			throw e;
+		}
 	}
 
 	@PostMapping("/refresh")
@@ -46,4 +65,12 @@ public class AuthController {
 		return ResponseEntity.ok(authService.refreshToken(refreshToken));
 	}
 
+	@PostMapping("/logout")
+	public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+	                                   @RequestBody RefreshTokenRequest refreshToken) {
+		String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+		authService.logout(accessToken, refreshToken);
+		return ResponseEntity.noContent().build();
+	}
+
 }
@@ -0,0 +1,52 @@
+package cbcoder.webapp.Users.controller;
+
+import cbcoder.webapp.Users.model.DTOs.UserView;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Strong ETags of the user resources. A single user is tagged with its id and version,
+ * a listing with a digest of the id and version of every user of the page, plus whatever else the response carries.
+ */
+final class ETags {
+
+	private ETags() {
+	}
+
+	static String ofUser(Long userId, long version) {
+		return "\"" + userId + "-" + version + "\"";
+	}
+
+	/**
+	 * @param users The users of the page, in the order they are returned.
+	 * @param extra The other values of the response, such as the total or the next cursor.
+	 * @return The quoted base64url SHA-256 digest of the page.
+	 */
+	static String ofPage(List<UserView> users, Object... extra) {
+		MessageDigest digest = sha256();
+		ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+		for (UserView user : users) {
+			buffer.clear();
+			buffer.putLong(user.userId()).putLong(user.version()).flip();
+			digest.update(buffer);
+		}
+		for (Object value : extra) {
+			digest.update((byte) 0);
+			digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+		}
+		return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()) + "\"";
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
@@ -1,34 +1,91 @@
 package cbcoder.webapp.Users.controller;
 
+import cbcoder.webapp.Users.mappers.UserMapper;
+import cbcoder.webapp.Users.model.DTOs.BulkRoleRequest;
+import cbcoder.webapp.Users.model.DTOs.BulkRoleResult;
 import cbcoder.webapp.Users.model.DTOs.UserDTO;
-import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.DTOs.UserImportReport;
+import cbcoder.webapp.Users.model.DTOs.UserView;
+import cbcoder.webapp.Users.services.UserImportService;
 import cbcoder.webapp.Users.services.impl.UserAdminService;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("superadmin")
 @PreAuthorize("hasAnyAuthority('ROLE_SUPERADMIN')")
 //@CrossOrigin(origins = "http://localhost:4200")
 public class SuperAdminController {
 
+	private static final String TEXT_CSV = "text/csv";
+
 	private final UserAdminService userAdminService;
+	private final UserImportService userImportService;
 
-	public SuperAdminController(UserAdminService userAdminService) {
+	public SuperAdminController(UserAdminService userAdminService, UserImportService userImportService) {
 		this.userAdminService = userAdminService;
+		this.userImportService = userImportService;
 	}
 
 	@PostMapping("/createAdmin")
 	@PreAuthorize("hasAuthority('ROLE_SUPERADMIN')")
-	public ResponseEntity<User> addAdminRole(@RequestBody @Valid UserDTO userDTO) {
-		return ResponseEntity.ok(userAdminService.addAdminRole(userDTO));
+	public ResponseEntity<UserView> addAdminRole(@RequestBody @Valid UserDTO userDTO) {
+		return ResponseEntity.ok(UserMapper.toView(userAdminService.addAdminRole(userDTO)));
 	}
 
 	@PutMapping("/revokeAdmin/{userId}")
 	@PreAuthorize("hasAuthority('ROLE_SUPERADMIN')")
-	public ResponseEntity<User> revokeAdmin(@PathVariable Long userId) {
-		return ResponseEntity.ok(userAdminService.revokeAdmin(userId));
+	public ResponseEntity<UserView> revokeAdmin(@PathVariable Long userId) {
+		return ResponseEntity.ok(UserMapper.toView(userAdminService.revokeAdmin(userId)));
+	}
+
+	/**
+	 * Grant a role to a list of users, or to every user that has another role, in a single statement.
+	 * @param request The role and either userIds or withRole.
+	 * @return ResponseEntity<BulkRoleResult> The number of users that received the role.
+	 */
+	@PostMapping("/roles/grant")
+	@PreAuthorize("hasAuthority('ROLE_SUPERADMIN')")
+	public ResponseEntity<BulkRoleResult> grantRole(@RequestBody BulkRoleRequest request) {
+		return ResponseEntity.ok(userAdminService.grantRole(request));
+	}
+
+	/**
+	 * Revoke a role from a list of users, or from every user that has another role, in a single statement.
+	 * @param request The role and either userIds or withRole.
+	 * @return ResponseEntity<BulkRoleResult> The number of users that lost the role.
+	 */
+	@PostMapping("/roles/revoke")
+	@PreAuthorize("hasAuthority('ROLE_SUPERADMIN')")
+	public ResponseEntity<BulkRoleResult> revokeRole(@RequestBody BulkRoleRequest request) {
+		return ResponseEntity.ok(userAdminService.revokeRole(request));
+	}
+
+	/**
+	 * Import users from a CSV file with a header line (firstName,lastName,email,password,role).
+	 * The request body is streamed, it is never loaded in memory as a whole.
+	 * @param body The raw request body.
+	 * @return ResponseEntity<UserImportReport> The counts and the result of every row.
+	 */
+	@PostMapping(value = "/users/import", consumes = TEXT_CSV)
+	@PreAuthorize("hasAuthority('ROLE_SUPERADMIN')")
+	public ResponseEntity<UserImportReport> importUsersCsv(InputStream body) {
+		return ResponseEntity.ok(userImportService.importCsv(body));
+	}
+
+	/**
+	 * Import users from newline-delimited JSON, one object per line with the same fields as the CSV import.
+	 * @param body The raw request body.
+	 * @return ResponseEntity<UserImportReport> The counts and the result of every row.
+	 */
+	@PostMapping(value = "/users/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	@PreAuthorize("hasAuthority('ROLE_SUPERADMIN')")
+	public ResponseEntity<UserImportReport> importUsersNdjson(InputStream body) {
+		return ResponseEntity.ok(userImportService.importNdjson(body));
 	}
 }
@@ -1,65 +1,130 @@
 package cbcoder.webapp.Users.controller;
 
+import cbcoder.webapp.Users.mappers.UserMapper;
+import cbcoder.webapp.Users.model.DTOs.CursorPage;
 import cbcoder.webapp.Users.model.DTOs.UserDTO;
+import cbcoder.webapp.Users.model.DTOs.UserView;
 import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.ExportFormat;
+import cbcoder.webapp.Users.model.enums.UserSortField;
+import cbcoder.webapp.Users.services.UserExportService;
 import cbcoder.webapp.Users.services.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("users")
 public class UserController {
 
 	private final UserService userService;
+	private final UserExportService userExportService;
 
-	public UserController(UserService userService) {
+	public UserController(UserService userService, UserExportService userExportService) {
 		this.userService = userService;
+		this.userExportService = userExportService;
 	}
 
 	/**
 	 * Get all users with pagination and sorting options available as query parameters.
 	 * The default values are pageNo=0, pageSize=10, sortBy=userId, which can be overridden by passing the values as query parameters.
+	 * Users can be sorted by userId, lastName or createdDate. The total is an estimate on large tables, prefer the cursor mode to scroll.
 	 * @param pageNo Integer pageNo (default value is 0) for pagination of users list to be fetched.
 	 * @param pageSize Integer pageSize (default value is 10) for pagination of users list to be fetched.
 	 * @param sortBy String sortBy (default value is userId) for sorting of users list to be fetched.
-	 * @return ResponseEntity<Page<User>> Page of users list with pagination and sorting options.
+	 * The response carries an ETag digest of the page, a request whose If-None-Match matches it gets a 304 without a body.
+	 * @return ResponseEntity<Page<UserView>> Page of users list with pagination and sorting options.
 	 */
 	@GetMapping("/all")
 	@PreAuthorize("hasAnyAuthority('ROLE_SUPERADMIN','ROLE_ADMIN', 'ROLE_SALES')")
-	public ResponseEntity<Page<User>> getAllUsers(
+	public ResponseEntity<Page<UserView>> getAllUsers(
 			@RequestParam(defaultValue = "0") Integer pageNo,
 			@RequestParam(defaultValue = "10") Integer pageSize,
 			@RequestParam(defaultValue = "userId") String sortBy) {
-		Pageable pageable = PageRequest.of(pageNo, pageSize, Sort.by(sortBy));
-		return ResponseEntity.ok(userService.getAllUsers(pageable));
+		UserSortField sortField = UserSortField.fromProperty(sortBy);
+		Pageable pageable = PageRequest.of(pageNo, pageSize, Sort.by(sortField.property()).and(Sort.by("userId")));
+		Page<UserView> users = userService.getAllUsers(pageable);
+		return ResponseEntity.ok()
+				.eTag(ETags.ofPage(users.getContent(), users.getTotalElements()))
+				.body(users);
+	}
+
+	/**
+	 * Scroll all users with a cursor instead of a page number. Selected when the cursor query parameter is present:
+	 * pass an empty cursor for the first page, then the nextCursor of each response until it is null.
+	 * @param cursor String cursor, empty for the first page or the nextCursor of the previous page.
+	 * @param pageSize Integer pageSize (default value is 10) number of users per page.
+	 * @param sortBy String sortBy (default value is userId) userId, lastName or createdDate, only used for the first page.
+	 * The response carries an ETag digest of the page, like the paged listing.
+	 * @return ResponseEntity<CursorPage<UserView>> The users of the page and the cursor of the next page.
+	 */
+	@GetMapping(value = "/all", params = "cursor")
+	@PreAuthorize("hasAnyAuthority('ROLE_SUPERADMIN','ROLE_ADMIN', 'ROLE_SALES')")
+	public ResponseEntity<CursorPage<UserView>> scrollUsers(
+			@RequestParam String cursor,
+			@RequestParam(defaultValue = "10") Integer pageSize,
+			@RequestParam(defaultValue = "userId") String sortBy) {
+		CursorPage<UserView> users = userService.scrollUsers(cursor, pageSize, UserSortField.fromProperty(sortBy));
+		return ResponseEntity.ok()
+				.eTag(ETags.ofPage(users.content(), users.nextCursor()))
+				.body(users);
+	}
+
+	/**
+	 * Download every user as CSV or NDJSON. Rows are streamed from the database to the response as they are read,
+	 * so the export of a large directory needs no more memory than a small one.
+	 * The file is gzip-compressed by the server when the client accepts it, see server.compression.
+	 * @param format ExportFormat format (default value is CSV) CSV or NDJSON.
+	 * @param response The response the file is written to.
+	 */
+	@GetMapping("/export")
+	@PreAuthorize("hasAnyAuthority('ROLE_SUPERADMIN','ROLE_ADMIN', 'ROLE_SALES')")
+	public void exportUsers(@RequestParam(defaultValue = "CSV") ExportFormat format, HttpServletResponse response)
+			throws IOException {
+		response.setContentType(format.contentType());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + format.extension() + "\"");
+		userExportService.exportUsers(format, response.getOutputStream());
 	}
 
 	/**
 	 * Get the user details based on the userId.
 	 * @param userId The userId of the user to be fetched.
-	 * @return ResponseEntity<User> The user object containing the user details fetched from the database.
+	 * @return ResponseEntity<UserView> The updated user details, without the password.
 	 */
 	@PutMapping("/{userId}")
 	@PreAuthorize("hasAnyAuthority('ROLE_SUPERADMIN','ROLE_ADMIN', 'ROLE_SALES')")
-	public ResponseEntity<User> updateUser(@PathVariable Long userId, @RequestBody UserDTO userDTO) {
+	public ResponseEntity<UserView> updateUser(@PathVariable Long userId, @RequestBody UserDTO userDTO) {
 		User user = userService.updateUser(userId, userDTO);
-		return ResponseEntity.ok(user);
+		return ResponseEntity.ok()
+				.eTag(ETags.ofUser(user.getUserId(), user.getVersion()))
+				.body(UserMapper.toView(user));
 	}
 
 	/**
 	 * Get the user details based on the userId.
+	 * The ETag is built from the version of the user, which is read first: when it matches If-None-Match
+	 * the response is a 304 and the user is neither loaded nor serialized.
 	 * @param userId The userId of the user to be fetched.
-	 * @return ResponseEntity<User> The user object containing the user details fetched from the database.
+	 * @param request The request, to check the If-None-Match header.
+	 * @return ResponseEntity<UserView> The user details fetched from the database, without the password, or null when not modified.
 	 */
 	@GetMapping("/{userId}")
 	@PreAuthorize("hasAnyAuthority('ROLE_SUPERADMIN','ROLE_ADMIN', 'ROLE_SALES')")
-	public ResponseEntity<User> getUserById(@PathVariable Long userId) {
-		return ResponseEntity.ok(userService.getUserById(userId));
+	public ResponseEntity<UserView> getUserById(@PathVariable Long userId, WebRequest request) {
+		String etag = ETags.ofUser(userId, userService.getUserVersion(userId));
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+		return ResponseEntity.ok().eTag(etag).body(userService.getUserById(userId));
 	}
 
 	/**
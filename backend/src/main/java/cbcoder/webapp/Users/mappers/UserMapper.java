@@ -0,0 +1,83 @@
+package cbcoder.webapp.Users.mappers;
+
+import cbcoder.webapp.Users.model.DTOs.SignUpRequest;
+import cbcoder.webapp.Users.model.DTOs.UserDTO;
+import cbcoder.webapp.Users.model.DTOs.UserView;
+import cbcoder.webapp.Users.model.Role;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written conversions between the user entity and its DTOs, plain getter and constructor calls with no reflection.
+ * When a field is added to User or UserDTO it must be added here too, UserMapperTests fails otherwise.
+ */
+public final class UserMapper {
+
+	private UserMapper() {
+	}
+
+	/**
+	 * Build a new, enabled user from a sign-up request. The password must already be encoded, and the role must be
+	 * the one resolved from the registry: the roles of the request itself are never trusted.
+	 */
+	public static UserDTO toDto(SignUpRequest request, String encodedPassword, Role role) {
+		return new UserDTO(request.firstName(), request.lastName(), User.normalizeEmail(request.email()),
+				encodedPassword, true, List.of(role));
+	}
+
+	public static User toUser(UserDTO userDTO) {
+		User user = new User(userDTO.getUserId(), null, null, userDTO.getEmail(),
+				userDTO.getPassword(), userDTO.getEnabled(), roleNames(userDTO.getRoles()));
+		// The setters capitalize the names, the constructor does not.
+		if (userDTO.getFirstName() != null) {
+			user.setFirstName(userDTO.getFirstName());
+		}
+		if (userDTO.getLastName() != null) {
+			user.setLastName(userDTO.getLastName());
+		}
+		if (userDTO.getCreatedDate() != null) {
+			user.setCreatedDate(userDTO.getCreatedDate());
+		}
+		user.setUpdatedDate(userDTO.getUpdatedDate());
+		return user;
+	}
+
+	public static UserDTO toDto(User user) {
+		List<Role> roles = new ArrayList<>(user.getRoles().size());
+		for (RoleEnum roleName : user.getRoles()) {
+			Role role = new Role(roleName);
+			role.setRoleId(roleName.getId());
+			roles.add(role);
+		}
+		UserDTO userDTO = new UserDTO(user.getFirstName(), user.getLastName(), user.getEmail(), user.getPassword(),
+				user.getEnabled(), roles);
+		userDTO.setUserId(user.getUserId());
+		userDTO.setCreatedDate(user.getCreatedDate());
+		userDTO.setUpdatedDate(user.getUpdatedDate());
+		return userDTO;
+	}
+
+	/**
+	 * The response form of a user, without the password hash.
+	 */
+	public static UserView toView(User user) {
+		return new UserView(user.getUserId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getEnabled(),
+				user.getCreatedDate(), user.getUpdatedDate(), user.getVersion(), user.getRoleMask());
+	}
+
+	private static List<RoleEnum> roleNames(List<Role> roles) {
+		if (roles == null || roles.isEmpty()) {
+			return List.of();
+		}
+		List<RoleEnum> roleNames = new ArrayList<>(roles.size());
+		for (Role role : roles) {
+			if (role.getRoleName() != null) {
+				roleNames.add(role.getRoleName());
+			}
+		}
+		return roleNames;
+	}
+}
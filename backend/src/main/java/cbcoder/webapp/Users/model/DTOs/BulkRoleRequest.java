@@ -0,0 +1,14 @@
+package cbcoder.webapp.Users.model.DTOs;
+
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+
+import java.util.List;
+
+/**
+ * Targets of a bulk role change: either an explicit list of user ids, or every user holding the filter role.
+ * @param role The role to grant or revoke.
+ * @param userIds The ids of the users to change, mutually exclusive with withRole.
+ * @param withRole Change every user that currently has this role, mutually exclusive with userIds.
+ */
+public record BulkRoleRequest(RoleEnum role, List<Long> userIds, RoleEnum withRole) {
+}
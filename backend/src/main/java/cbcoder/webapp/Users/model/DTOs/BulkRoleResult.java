@@ -0,0 +1,10 @@
+package cbcoder.webapp.Users.model.DTOs;
+
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+
+/**
+ * @param requested The number of user ids in the request, null when a role filter was used.
+ * @param changed The number of users whose roles actually changed, users that already had (or lacked) the role are not counted.
+ */
+public record BulkRoleResult(RoleEnum role, boolean granted, Integer requested, int changed) {
+}
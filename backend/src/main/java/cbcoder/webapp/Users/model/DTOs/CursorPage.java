@@ -0,0 +1,12 @@
+package cbcoder.webapp.Users.model.DTOs;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) scroll.
+ * @param content The elements of the page.
+ * @param nextCursor The opaque token to pass as cursor to get the next page, null on the last page.
+ * @param size The requested page size.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, int size) {
+}
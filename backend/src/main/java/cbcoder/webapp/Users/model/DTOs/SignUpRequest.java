@@ -1,8 +1,30 @@
 package cbcoder.webapp.Users.model.DTOs;
 
 import cbcoder.webapp.Users.model.Role;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 
 import java.util.List;
 
-public record SignUpRequest(String firstName, String lastName, String email, String password, List<Role> roles) {
+/**
+ * Sign-up form. It is written with a plain INSERT, not through JPA, so it carries the same constraints as {@link
+ * cbcoder.webapp.Users.model.User} and is validated by the controller.
+ */
+public record SignUpRequest(
+		@NotBlank(message = "First name cannot be blank")
+		@Size(min = 2, max = 50, message = "First name should be between 2 and 50 characters")
+		String firstName,
+		@NotBlank(message = "Last name cannot be blank")
+		@Size(min = 2, max = 50, message = "Last name should be between 2 and 50 characters")
+		String lastName,
+		@NotBlank(message = "Email cannot be blank")
+		@Email(message = "Email should be valid")
+		String email,
+		@NotBlank(message = "Password cannot be blank")
+		@Size(min = 8, max = 100, message = "Password should be between 8 and 100 characters")
+		String password,
+		@NotEmpty(message = "A role is required")
+		List<Role> roles) {
 }
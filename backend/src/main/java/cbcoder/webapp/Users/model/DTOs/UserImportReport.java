@@ -0,0 +1,11 @@
+package cbcoder.webapp.Users.model.DTOs;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import, with one result per row of the file.
+ * @param completed False when the file could not be read to the end, rows after the last result were not imported.
+ */
+public record UserImportReport(int total, int created, int duplicates, int invalid, boolean completed,
+                               List<UserImportRowResult> rows) {
+}
@@ -0,0 +1,8 @@
+package cbcoder.webapp.Users.model.DTOs;
+
+/**
+ * One line of a bulk import file, a CSV row (with a header line) or an NDJSON object.
+ * @param role The role name, with or without the ROLE_ prefix, e.g. SALES or ROLE_SALES.
+ */
+public record UserImportRow(String firstName, String lastName, String email, String password, String role) {
+}
@@ -0,0 +1,10 @@
+package cbcoder.webapp.Users.model.DTOs;
+
+import cbcoder.webapp.Users.model.enums.ImportStatus;
+
+/**
+ * @param row The 1-based position of the row in the file, the CSV header is not counted.
+ * @param message Why the row was not imported, null for created rows.
+ */
+public record UserImportRowResult(int row, String email, ImportStatus status, String message) {
+}
@@ -0,0 +1,27 @@
+package cbcoder.webapp.Users.model.DTOs;
+
+import cbcoder.webapp.Users.model.RoleMask;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read model of a user for the listing and detail endpoints. It is filled straight from a query,
+ * never from a managed entity, and it does not carry the password hash. The version is the one the ETag of the user is built from.
+ */
+public record UserView(Long userId, String firstName, String lastName, String email, Boolean enabled,
+                       LocalDateTime createdDate, LocalDateTime updatedDate, long version, List<RoleEnum> roles) {
+
+	public UserView {
+		roles = List.copyOf(roles);
+	}
+
+	/**
+	 * Constructor used by the JPQL constructor expressions, the roles are decoded from the role mask.
+	 */
+	public UserView(Long userId, String firstName, String lastName, String email, Boolean enabled,
+	                LocalDateTime createdDate, LocalDateTime updatedDate, long version, int roleMask) {
+		this(userId, firstName, lastName, email, enabled, createdDate, updatedDate, version, List.copyOf(RoleMask.roles(roleMask)));
+	}
+}
@@ -0,0 +1,17 @@
+package cbcoder.webapp.Users.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Logins of one user not written to the database yet.
+ * @param userId The user who logged in.
+ * @param logins The number of logins since the last write.
+ * @param lastLoginAt The time of the latest of them.
+ */
+public record LoginActivity(Long userId, int logins, LocalDateTime lastLoginAt) {
+
+	public LoginActivity plus(LoginActivity other) {
+		LocalDateTime latest = lastLoginAt.isAfter(other.lastLoginAt) ? lastLoginAt : other.lastLoginAt;
+		return new LoginActivity(userId, logins + other.logins, latest);
+	}
+}
@@ -0,0 +1,54 @@
+package cbcoder.webapp.Users.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.Objects;
+
+@Entity
+@Table(name = "REVOKED_TOKENS", indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"))
+public class RevokedToken {
+
+	@Id
+	@Column(name = "jti", length = 36, nullable = false)
+	private String jti;
+
+	@Column(name = "expires_at", nullable = false)
+	private Instant expiresAt;
+
+	public RevokedToken() {
+	}
+
+	public RevokedToken(String jti, Instant expiresAt) {
+		this.jti = jti;
+		this.expiresAt = expiresAt;
+	}
+
+	public String getJti() {
+		return jti;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof RevokedToken that)) return false;
+		return Objects.equals(getJti(), that.getJti());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(getJti());
+	}
+
+	@Override
+	public String toString() {
+		return "RevokedToken{" +
+				"jti='" + jti + '\'' +
+				", expiresAt=" + expiresAt +
+				'}';
+	}
+}
@@ -2,12 +2,21 @@ package cbcoder.webapp.Users.model;
 
 import cbcoder.webapp.Users.model.enums.RoleEnum;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.Objects;
 
+/**
+ * A role seeded by data.sql. Rows are never written by the application, so the entity is immutable
+ * and, when the second-level cache is enabled, cached in the read-only "roles" region.
+ */
 @Entity
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
 @Table(name = "ROLES")
 @SequenceGenerator(name = "role_seq", sequenceName = "role_seq", allocationSize = 1)
 public class Role implements Serializable {
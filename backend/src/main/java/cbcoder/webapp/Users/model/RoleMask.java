@@ -0,0 +1,67 @@
+package cbcoder.webapp.Users.model;
+
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.*;
+
+/**
+ * Helpers for the role bitmask stored on each user.
+ * There are only 2^5 possible masks, so the role set and the authority list of every mask are built once
+ * and shared by all users: getAuthorities() allocates nothing and a role check is a single bit test.
+ */
+public final class RoleMask {
+	public static final int NONE = 0;
+
+	private static final RoleEnum[] ROLES = RoleEnum.values();
+	private static final int MASKS = 1 << ROLES.length;
+	private static final List<Set<RoleEnum>> ROLE_SETS = new ArrayList<>(MASKS);
+	private static final List<List<GrantedAuthority>> AUTHORITIES = new ArrayList<>(MASKS);
+
+	static {
+		Map<RoleEnum, GrantedAuthority> authorities = new EnumMap<>(RoleEnum.class);
+		for (RoleEnum role : ROLES) {
+			authorities.put(role, new SimpleGrantedAuthority(role.name()));
+		}
+		for (int mask = 0; mask < MASKS; mask++) {
+			EnumSet<RoleEnum> roles = EnumSet.noneOf(RoleEnum.class);
+			for (RoleEnum role : ROLES) {
+				if (contains(mask, role)) {
+					roles.add(role);
+				}
+			}
+			ROLE_SETS.add(Collections.unmodifiableSet(roles));
+			AUTHORITIES.add(roles.stream().map(authorities::get).toList());
+		}
+	}
+
+	private RoleMask() {
+	}
+
+	public static int of(Collection<RoleEnum> roles) {
+		int mask = NONE;
+		for (RoleEnum role : roles) {
+			mask |= role.bit();
+		}
+		return mask;
+	}
+
+	public static boolean contains(int mask, RoleEnum role) {
+		return (mask & role.bit()) != 0;
+	}
+
+	/**
+	 * @return The shared, unmodifiable set of roles of the mask.
+	 */
+	public static Set<RoleEnum> roles(int mask) {
+		return ROLE_SETS.get(mask & (MASKS - 1));
+	}
+
+	/**
+	 * @return The shared, immutable authority list of the mask, in RoleEnum order.
+	 */
+	public static List<GrantedAuthority> authorities(int mask) {
+		return AUTHORITIES.get(mask & (MASKS - 1));
+	}
+}
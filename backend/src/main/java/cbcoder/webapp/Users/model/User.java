@@ -1,24 +1,38 @@
 package cbcoder.webapp.Users.model;
 
+import cbcoder.webapp.Users.model.enums.RoleEnum;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.LocalDateTime;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
 
 @Entity
-@Table(name = "USERS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
+@Table(name = "USERS", indexes = {
+		@Index(name = "idx_users_last_name_user_id", columnList = "last_name, user_id"),
+		@Index(name = "idx_users_created_date_user_id", columnList = "created_date, user_id")
+})
 @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 1)
 public class User implements Serializable, UserDetails {
 	@Serial
@@ -40,7 +54,13 @@ public class User implements Serializable, UserDetails {
 	@Size(min = 2, max = 50, message = "Last name should be between 2 and 50 characters")
 	private String lastName;
 
-	@Column(name = "email", unique = true, nullable = false)
+	/**
+	 * Stored and compared in lower case, see {@link #normalizeEmail(String)}. Uniqueness is enforced by the
+	 * functional index on lower(email) created in data.sql, which every lookup by email uses through the read transformer.
+	 */
+	@NaturalId(mutable = true)
+	@ColumnTransformer(read = "lower(email)", write = "lower(?)")
+	@Column(name = "email", nullable = false)
 	@Email(message = "Email should be valid")
 	@NotNull(message = "Email cannot be null")
 	@NotBlank(message = "Email cannot be blank")
@@ -63,30 +83,51 @@ public class User implements Serializable, UserDetails {
 	@LastModifiedDate
 	private LocalDateTime updatedDate;
 
-	@ManyToMany(fetch = FetchType.EAGER)
-	@JoinTable(name = "user_roles",
-			joinColumns = @JoinColumn(name = "user_id"),
-			inverseJoinColumns = @JoinColumn(name = "role_id"))
-	private List<Role> roles = new ArrayList<>();
+	@Column(name = "token_version")
+	private Long tokenVersion = 0L;
+
+	/**
+	 * One bit per {@link RoleEnum}, see {@link RoleMask}. Loading a user needs no join.
+	 */
+	@Column(name = "role_mask", nullable = false)
+	@ColumnDefault("0")
+	private int roleMask = RoleMask.NONE;
+
+	/**
+	 * Bumped on every update, by Hibernate and by the JDBC bulk updates. The ETag of the user is built from it.
+	 */
+	@Version
+	@Column(name = "version", nullable = false)
+	@ColumnDefault("0")
+	private Long version;
+
+	/**
+	 * Login activity, written behind by the UserActivityService with its own UPDATE, never by Hibernate.
+	 * It does not bump the version and may be stale on a cached entity.
+	 */
+	@Column(name = "last_login_at", insertable = false, updatable = false)
+	private LocalDateTime lastLoginAt;
+
+	@Column(name = "login_count", nullable = false, insertable = false, updatable = false)
+	@ColumnDefault("0")
+	private long loginCount;
 
 	public User() {
 	}
 
-	public User(Long userId, String firstName, String lastName, String email, String password, Boolean enabled, List<Role> roles) {
+	public User(Long userId, String firstName, String lastName, String email, String password, Boolean enabled, Collection<RoleEnum> roles) {
 		this.userId = userId;
 		this.firstName = firstName;
 		this.lastName = lastName;
-		this.email = email;
+		this.email = normalizeEmail(email);
 		this.password = password;
 		this.enabled = enabled;
-		this.roles = roles;
+		this.roleMask = RoleMask.of(roles);
 	}
 
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
-		return this.roles.stream()
-				.map(role -> new SimpleGrantedAuthority(role.getRoleName().name()))
-				.collect(Collectors.toList());
+		return RoleMask.authorities(roleMask);
 	}
 
 	@Override
@@ -148,7 +189,15 @@ public class User implements Serializable, UserDetails {
 	}
 
 	public void setEmail(@Email String email) {
-		this.email = email;
+		this.email = normalizeEmail(email);
+	}
+
+	/**
+	 * Emails are case-insensitive: John@x.com and john@x.com are the same account.
+	 * @return The trimmed, lower-case email, or null.
+	 */
+	public static String normalizeEmail(String email) {
+		return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
 	}
 
 	public void setEnabled(Boolean enabled) {
@@ -180,12 +229,55 @@ public class User implements Serializable, UserDetails {
 		this.updatedDate = updatedDate;
 	}
 
-	public List<Role> getRoles() {
-		return this.roles;
+	public long getTokenVersion() {
+		return tokenVersion == null ? 0L : tokenVersion;
+	}
+
+	/**
+	 * Invalidate every self-contained access token issued to this user so far.
+	 * Must be called whenever the password or the roles of the user change.
+	 */
+	public void incrementTokenVersion() {
+		this.tokenVersion = getTokenVersion() + 1;
+	}
+
+	/**
+	 * @return The version of the row, 0 for a user that has not been saved yet (the column default).
+	 */
+	public long getVersion() {
+		return version == null ? 0L : version;
+	}
+
+	public LocalDateTime getLastLoginAt() {
+		return lastLoginAt;
+	}
+
+	public long getLoginCount() {
+		return loginCount;
+	}
+
+	public Set<RoleEnum> getRoles() {
+		return RoleMask.roles(roleMask);
+	}
+
+	public void setRoles(Collection<RoleEnum> roles) {
+		this.roleMask = RoleMask.of(roles);
+	}
+
+	public int getRoleMask() {
+		return roleMask;
+	}
+
+	public boolean hasRole(RoleEnum role) {
+		return RoleMask.contains(roleMask, role);
+	}
+
+	public void addRole(RoleEnum role) {
+		this.roleMask |= role.bit();
 	}
 
-	public void setRoles(List<Role> roles) {
-		this.roles = roles;
+	public void removeRole(RoleEnum role) {
+		this.roleMask &= ~role.bit();
 	}
 
 	public String getFullName() {
@@ -223,7 +315,7 @@ public class User implements Serializable, UserDetails {
 				", active=" + enabled +
 				", createdDate=" + createdDate +
 				", updatedDate=" + updatedDate +
-				", roles=" + roles +
+				", roles=" + getRoles() +
 				'}';
 	}
 }
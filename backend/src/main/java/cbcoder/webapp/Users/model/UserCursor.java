@@ -0,0 +1,46 @@
+package cbcoder.webapp.Users.model;
+
+import cbcoder.webapp.Exceptions.InvalidPageRequestException;
+import cbcoder.webapp.Users.model.enums.UserSortField;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of a keyset scroll: the sort column and the sort value and id of the last row already returned.
+ * It is sent to clients as an opaque URL-safe token.
+ * @param sortBy The column the scroll is sorted by.
+ * @param lastUserId The userId of the last row of the previous page.
+ * @param lastValue The sort value of the last row of the previous page, same as lastUserId when sorting by userId.
+ */
+public record UserCursor(UserSortField sortBy, Long lastUserId, String lastValue) {
+	private static final String SEPARATOR = "|";
+
+	public String encode() {
+		String raw = sortBy.name() + SEPARATOR + lastUserId + SEPARATOR + lastValue;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * The last sort value as a date, for a cursor sorted by createdDate.
+	 */
+	public LocalDateTime lastCreatedDate() {
+		return LocalDateTime.parse(lastValue);
+	}
+
+	public static UserCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\|", 3);
+			UserCursor cursor = new UserCursor(UserSortField.valueOf(parts[0]), Long.valueOf(parts[1]), parts[2]);
+			if (cursor.sortBy() == UserSortField.CREATED_DATE) {
+				cursor.lastCreatedDate();
+			}
+			return cursor;
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+			throw new InvalidPageRequestException("Invalid cursor");
+		}
+	}
+}
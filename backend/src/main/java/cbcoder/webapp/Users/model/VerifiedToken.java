@@ -0,0 +1,40 @@
+package cbcoder.webapp.Users.model;
+
+import cbcoder.webapp.Users.model.enums.TokenType;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked.
+ * Instances are only created by the JwtService after a single parse of the token.
+ * @param id The unique id (jti) of the token, used to revoke it.
+ * @param subject The subject (user email) of the token.
+ * @param expiration The instant after which the token is no longer valid.
+ * @param issuedAt The instant the token was issued.
+ * @param type Whether this is an access or a refresh token, null for a token without a typ claim.
+ * @param roles The role names embedded in a self-contained token, null for plain tokens.
+ * @param tokenVersion The user's token version when the token was issued, null for tokens issued without one.
+ */
+public record VerifiedToken(String id, String subject, Instant expiration, Instant issuedAt, TokenType type, List<String> roles, Long tokenVersion) {
+
+	public VerifiedToken {
+		roles = roles != null ? List.copyOf(roles) : null;
+	}
+
+	public boolean isSelfContained() {
+		return roles != null && tokenVersion != null;
+	}
+
+	public boolean isAccessToken() {
+		return type == TokenType.ACCESS;
+	}
+
+	public boolean isRefreshToken() {
+		return type == TokenType.REFRESH;
+	}
+
+	public boolean isExpired(Instant now) {
+		return expiration.isBefore(now);
+	}
+}
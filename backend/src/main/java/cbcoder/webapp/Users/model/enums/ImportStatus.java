@@ -0,0 +1,7 @@
+package cbcoder.webapp.Users.model.enums;
+
+public enum ImportStatus {
+	CREATED,
+	DUPLICATE,
+	INVALID
+}
@@ -1,9 +1,27 @@
 package cbcoder.webapp.Users.model.enums;
 
+/**
+ * The roles of the application. The id matches the role_id seeded in data.sql,
+ * and each role owns one bit of the users.role_mask column.
+ */
 public enum RoleEnum {
-	ROLE_SUPERADMIN,
-	ROLE_ADMIN,
-	ROLE_SALES,
-	ROLE_WORKSHOP,
-	ROLE_VALETER;
+	ROLE_SUPERADMIN(1),
+	ROLE_ADMIN(2),
+	ROLE_SALES(3),
+	ROLE_WORKSHOP(4),
+	ROLE_VALETER(5);
+
+	private final long id;
+
+	RoleEnum(long id) {
+		this.id = id;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public int bit() {
+		return 1 << (id - 1);
+	}
 }
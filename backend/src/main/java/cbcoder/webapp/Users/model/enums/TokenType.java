@@ -0,0 +1,32 @@
+package cbcoder.webapp.Users.model.enums;
+
+/**
+ * The kind of a JWT, carried in its typ claim. An access token is only accepted as a bearer token,
+ * a refresh token only at /auth/refresh.
+ */
+public enum TokenType {
+	ACCESS("access"),
+	REFRESH("refresh");
+
+	private final String claim;
+
+	TokenType(String claim) {
+		this.claim = claim;
+	}
+
+	public String claim() {
+		return claim;
+	}
+
+	/**
+	 * @return The type with this claim value, or null for a token without a known type.
+	 */
+	public static TokenType fromClaim(String claim) {
+		for (TokenType type : values()) {
+			if (type.claim.equals(claim)) {
+				return type;
+			}
+		}
+		return null;
+	}
+}
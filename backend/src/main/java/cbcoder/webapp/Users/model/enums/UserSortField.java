@@ -0,0 +1,32 @@
+package cbcoder.webapp.Users.model.enums;
+
+import cbcoder.webapp.Exceptions.InvalidPageRequestException;
+
+/**
+ * Columns the user listing can be sorted by. Each one is backed by an index ending with user_id,
+ * so both offset and keyset pages can be read from the index in order.
+ */
+public enum UserSortField {
+	USER_ID("userId"),
+	LAST_NAME("lastName"),
+	CREATED_DATE("createdDate");
+
+	private final String property;
+
+	UserSortField(String property) {
+		this.property = property;
+	}
+
+	public String property() {
+		return property;
+	}
+
+	public static UserSortField fromProperty(String property) {
+		for (UserSortField field : values()) {
+			if (field.property.equals(property)) {
+				return field;
+			}
+		}
+		throw new InvalidPageRequestException("Users can only be sorted by userId, lastName or createdDate");
+	}
+}
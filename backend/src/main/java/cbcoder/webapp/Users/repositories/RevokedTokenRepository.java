@@ -0,0 +1,33 @@
+package cbcoder.webapp.Users.repositories;
+
+import cbcoder.webapp.Users.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+	/**
+	 * Insert the token id unless it is already revoked. The conflict check and the insert are one atomic statement,
+	 * so two concurrent refreshes with the same token can never both succeed.
+	 * @return 1 if the token was revoked by this call, 0 if it was already revoked.
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "INSERT INTO revoked_tokens (jti, expires_at) VALUES (:jti, :expiresAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+	int revoke(String jti, Instant expiresAt);
+
+	@Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+	List<String> findActiveJtis(Instant now);
+
+	@Transactional
+	@Modifying
+	@Query("delete from RevokedToken r where r.expiresAt <= :now")
+	int deleteExpired(Instant now);
+}
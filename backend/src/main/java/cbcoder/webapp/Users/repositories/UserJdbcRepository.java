@@ -0,0 +1,139 @@
+package cbcoder.webapp.Users.repositories;
+
+import cbcoder.webapp.Users.model.LoginActivity;
+import cbcoder.webapp.Users.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plain JDBC writes for bulk operations, where going through the entity manager would cost a round trip per row.
+ */
+@Repository
+public class UserJdbcRepository {
+	private static final String INSERT_USER = """
+			INSERT INTO users (user_id, first_name, last_name, email, password, enabled, created_date, token_version, role_mask, version)
+			VALUES (nextval('user_seq'), ?, ?, lower(?), ?, ?, ?, 0, ?, 0)
+			ON CONFLICT DO NOTHING""";
+	private static final String INSERT_USER_RETURNING_ID = """
+			INSERT INTO users (user_id, first_name, last_name, email, password, enabled, created_date, token_version, role_mask, version)
+			VALUES (nextval('user_seq'), ?, ?, lower(?), ?, ?, ?, 0, ?, 0)
+			RETURNING user_id""";
+	private static final String GRANT_ROLE = """
+			UPDATE users SET role_mask = role_mask | ?, token_version = COALESCE(token_version, 0) + 1, version = version + 1, updated_date = now()
+			WHERE role_mask & ? = 0 AND """;
+	private static final String REVOKE_ROLE = """
+			UPDATE users SET role_mask = role_mask & ~?, token_version = COALESCE(token_version, 0) + 1, version = version + 1, updated_date = now()
+			WHERE role_mask & ? <> 0 AND """;
+	private static final String BY_IDS = "user_id = ANY(?) RETURNING email";
+	private static final String BY_ROLE = "role_mask & ? <> 0 RETURNING email";
+	private static final String UPDATE_LOGINS = """
+			UPDATE users u SET login_count = u.login_count + v.logins, last_login_at = GREATEST(u.last_login_at, v.last_login_at)
+			FROM (VALUES %s) AS v(user_id, logins, last_login_at)
+			WHERE u.user_id = v.user_id""";
+	private static final String LOGIN_ROW = "(?::bigint, ?::int, ?::timestamp)";
+	private static final String SELECT_EXPORT = """
+			SELECT user_id, first_name, last_name, email, enabled, created_date, updated_date, role_mask
+			FROM users ORDER BY user_id""";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public UserJdbcRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Insert one user in a single round trip, the id is drawn from user_seq by the statement itself.
+	 * @return The id of the new user.
+	 * @throws org.springframework.dao.DuplicateKeyException if the email is already taken, whatever its case.
+	 */
+	public Long insert(User user) {
+		return jdbcTemplate.queryForObject(INSERT_USER_RETURNING_ID, Long.class,
+				user.getFirstName(), user.getLastName(), user.getEmail(), user.getPassword(), user.getEnabled(),
+				Timestamp.valueOf(user.getCreatedDate()), user.getRoleMask());
+	}
+
+	/**
+	 * Insert the users in a single JDBC batch. Ids are drawn from user_seq inside the statement,
+	 * and a row whose email already exists is skipped instead of failing the batch.
+	 * @return For each user, in order, 1 if it was inserted and 0 if its email was already taken.
+	 */
+	public int[] insertAll(List<User> users) {
+		return jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), (statement, user) -> {
+			statement.setString(1, user.getFirstName());
+			statement.setString(2, user.getLastName());
+			statement.setString(3, user.getEmail());
+			statement.setString(4, user.getPassword());
+			statement.setBoolean(5, user.getEnabled());
+			statement.setTimestamp(6, Timestamp.valueOf(user.getCreatedDate()));
+			statement.setInt(7, user.getRoleMask());
+		})[0];
+	}
+
+	/**
+	 * Grant or revoke a role for a set of users in one UPDATE. Users that already have (or lack) the role are left
+	 * untouched, the token version of every changed user is bumped.
+	 * @param roleBit The bit of the role to change.
+	 * @param userIds The users to change.
+	 * @return The emails of the users that were changed.
+	 */
+	public List<String> changeRoleByIds(boolean grant, int roleBit, Collection<Long> userIds) {
+		return jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement((grant ? GRANT_ROLE : REVOKE_ROLE) + BY_IDS);
+			statement.setInt(1, roleBit);
+			statement.setInt(2, roleBit);
+			statement.setArray(3, connection.createArrayOf("bigint", userIds.toArray()));
+			return statement;
+		}, (resultSet, rowNumber) -> resultSet.getString(1));
+	}
+
+	/**
+	 * Same as {@link #changeRoleByIds}, for every user that holds the filter role.
+	 * @param filterBit The bit of the role the changed users must have.
+	 */
+	public List<String> changeRoleByRole(boolean grant, int roleBit, int filterBit) {
+		return jdbcTemplate.query((grant ? GRANT_ROLE : REVOKE_ROLE) + BY_ROLE,
+				(resultSet, rowNumber) -> resultSet.getString(1), roleBit, roleBit, filterBit);
+	}
+
+	/**
+	 * Pass every user row, ordered by id, to the handler through a forward-only cursor.
+	 * PostgreSQL only honours the fetch size inside a transaction, so the caller must hold one,
+	 * otherwise the driver reads the whole result set into memory.
+	 * Columns: user_id, first_name, last_name, email, enabled, created_date, updated_date, role_mask.
+	 */
+	public void streamAll(int fetchSize, RowCallbackHandler handler) {
+		jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(SELECT_EXPORT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(fetchSize);
+			return statement;
+		}, handler);
+	}
+
+	/**
+	 * Add the pending logins of many users with one UPDATE joined to a VALUES list. Deleted users are skipped.
+	 * @param activity At most one entry per user.
+	 * @return The number of users updated.
+	 */
+	public int addLogins(List<LoginActivity> activity) {
+		if (activity.isEmpty()) {
+			return 0;
+		}
+		String sql = UPDATE_LOGINS.formatted(String.join(", ", Collections.nCopies(activity.size(), LOGIN_ROW)));
+		Object[] args = new Object[activity.size() * 3];
+		int i = 0;
+		for (LoginActivity login : activity) {
+			args[i++] = login.userId();
+			args[i++] = login.logins();
+			args[i++] = Timestamp.valueOf(login.lastLoginAt());
+		}
+		return jdbcTemplate.update(sql, args);
+	}
+}
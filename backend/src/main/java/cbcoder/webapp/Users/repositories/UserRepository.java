@@ -1,14 +1,63 @@
 package cbcoder.webapp.Users.repositories;
 
+import cbcoder.webapp.Users.model.DTOs.UserView;
 import cbcoder.webapp.Users.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-	Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+	String VIEW = "select new cbcoder.webapp.Users.model.DTOs.UserView(u.userId, u.firstName, u.lastName, u.email, u.enabled, u.createdDate, u.updatedDate, u.version, u.roleMask) from User u";
 
-	boolean existsByEmail(String email);
+	@Query("select coalesce(u.tokenVersion, 0) from User u where u.email = :email")
+	Optional<Long> findTokenVersionByEmail(String email);
+
+	/**
+	 * Offset page of the read model, without the count query of findAll(Pageable).
+	 */
+	@Query(VIEW)
+	Slice<UserView> findViewSlice(Pageable pageable);
+
+	@Query(VIEW + " where u.userId = :userId")
+	Optional<UserView> findViewById(Long userId);
+
+	/**
+	 * Primary key lookup of the version alone, enough to answer a conditional GET without reading the user.
+	 */
+	@Query("select u.version from User u where u.userId = :userId")
+	Optional<Long> findVersionById(Long userId);
+
+
+	/**
+	 * Planner estimate of the number of rows, kept up to date by autovacuum/ANALYZE. -1 if the table was never analyzed.
+	 * Only the users table of the current schema is read, not a users table of another schema of the same database.
+	 */
+	@Query(value = "SELECT CAST(c.reltuples AS BIGINT) FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+			+ "WHERE c.relname = 'users' AND n.nspname = current_schema()", nativeQuery = true)
+	Long estimateCount();
+
+	@Query(VIEW + " order by u.userId")
+	List<UserView> scrollFirstByUserId(Pageable pageable);
+
+	@Query(VIEW + " where u.userId > :userId order by u.userId")
+	List<UserView> scrollByUserId(Long userId, Pageable pageable);
+
+	@Query(VIEW + " order by u.lastName, u.userId")
+	List<UserView> scrollFirstByLastName(Pageable pageable);
+
+	@Query(VIEW + " where (u.lastName, u.userId) > (:lastName, :userId) order by u.lastName, u.userId")
+	List<UserView> scrollByLastName(String lastName, Long userId, Pageable pageable);
+
+	@Query(VIEW + " order by u.createdDate, u.userId")
+	List<UserView> scrollFirstByCreatedDate(Pageable pageable);
+
+	@Query(VIEW + " where (u.createdDate, u.userId) > (:createdDate, :userId) order by u.createdDate, u.userId")
+	List<UserView> scrollByCreatedDate(LocalDateTime createdDate, Long userId, Pageable pageable);
 }
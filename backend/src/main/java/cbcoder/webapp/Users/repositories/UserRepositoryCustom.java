@@ -0,0 +1,9 @@
+package cbcoder.webapp.Users.repositories;
+
+import cbcoder.webapp.Users.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+	Optional<User> findByEmail(String email);
+}
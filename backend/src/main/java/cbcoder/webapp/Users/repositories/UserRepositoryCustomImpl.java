@@ -0,0 +1,30 @@
+package cbcoder.webapp.Users.repositories;
+
+import cbcoder.webapp.Users.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Looks users up by their email natural id, so with the second-level cache enabled (l2cache profile)
+ * a repeated lookup is served from the users-by-email and users regions without a query.
+ * Without the cache it is the same single select as a derived findByEmail query. The email is matched case-insensitively.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+	private final EntityManager entityManager;
+
+	public UserRepositoryCustomImpl(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<User> findByEmail(String email) {
+		return entityManager.unwrap(Session.class)
+				.bySimpleNaturalId(User.class)
+				.loadOptional(User.normalizeEmail(email));
+	}
+}
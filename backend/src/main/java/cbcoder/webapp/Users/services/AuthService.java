@@ -10,4 +10,5 @@ public interface AuthService {
 	User register(SignUpRequest request);
 	JwtAuthResponse login(SignInRequest signInRequest);
 	JwtAuthResponse refreshToken(RefreshTokenRequest refreshTokenRequest);
+	void logout(String accessToken, RefreshTokenRequest refreshTokenRequest);
 }
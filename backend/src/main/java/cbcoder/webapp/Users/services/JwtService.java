@@ -1,11 +1,14 @@
 package cbcoder.webapp.Users.services;
 
+import cbcoder.webapp.Users.model.VerifiedToken;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Map;
 
 public interface JwtService {
 	String generateJwtToken(UserDetails userDetails);
+	VerifiedToken verifyToken(String token);
+	boolean isTokenValid(VerifiedToken token, UserDetails userDetails);
 	String getUsername(String token);
 	boolean isTokenExpired(String token);
 	boolean validateToken(String token, UserDetails userDetails);
@@ -0,0 +1,9 @@
+package cbcoder.webapp.Users.services;
+
+import java.time.Instant;
+
+public interface TokenRevocationService {
+	boolean isRevoked(String jti);
+	boolean revoke(String jti, Instant expiresAt);
+	void pruneExpired();
+}
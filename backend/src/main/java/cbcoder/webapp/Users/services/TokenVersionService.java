@@ -0,0 +1,6 @@
+package cbcoder.webapp.Users.services;
+
+public interface TokenVersionService {
+	boolean isCurrent(String email, long tokenVersion);
+	void evict(String email);
+}
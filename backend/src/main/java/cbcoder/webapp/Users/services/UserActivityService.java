@@ -0,0 +1,6 @@
+package cbcoder.webapp.Users.services;
+
+public interface UserActivityService {
+	void recordLogin(Long userId);
+	int flush();
+}
@@ -0,0 +1,10 @@
+package cbcoder.webapp.Users.services;
+
+import cbcoder.webapp.Users.model.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+	void exportUsers(ExportFormat format, OutputStream output) throws IOException;
+}
@@ -0,0 +1,10 @@
+package cbcoder.webapp.Users.services;
+
+import cbcoder.webapp.Users.model.DTOs.UserImportReport;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+	UserImportReport importCsv(InputStream input);
+	UserImportReport importNdjson(InputStream input);
+}
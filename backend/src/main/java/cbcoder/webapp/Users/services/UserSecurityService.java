@@ -4,4 +4,5 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 
 public interface UserSecurityService {
 	UserDetailsService userDetailsService();
+	void evictUser(String email);
 }
@@ -1,7 +1,10 @@
 package cbcoder.webapp.Users.services;
 
+import cbcoder.webapp.Users.model.DTOs.CursorPage;
 import cbcoder.webapp.Users.model.DTOs.UserDTO;
+import cbcoder.webapp.Users.model.DTOs.UserView;
 import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.UserSortField;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -9,7 +12,9 @@ import org.springframework.data.domain.Pageable;
 public interface UserService {
 	User updateUser(Long userId ,UserDTO userDTO);
 	String deleteUser(Long userId);
-	Page<User> getAllUsers(Pageable pageable);
-	User getUserById(Long userId);
+	Page<UserView> getAllUsers(Pageable pageable);
+	CursorPage<UserView> scrollUsers(String cursor, int pageSize, UserSortField sortBy);
+	UserView getUserById(Long userId);
+	long getUserVersion(Long userId);
 
 }
@@ -1,87 +1,172 @@
 package cbcoder.webapp.Users.services.impl;
 
+import cbcoder.webapp.Audit.model.enums.AuditAction;
+import cbcoder.webapp.Audit.services.AuditService;
+import cbcoder.webapp.Exceptions.NotAuthorizedAccessException;
 import cbcoder.webapp.Exceptions.PasswordLengthNotValidException;
 import cbcoder.webapp.Exceptions.RoleNotFoundException;
 import cbcoder.webapp.Exceptions.UserAlreadyExistsException;
+import cbcoder.webapp.Users.config.RoleRegistry;
+import cbcoder.webapp.Users.config.VerifiedTokenCache;
+import cbcoder.webapp.Users.mappers.UserMapper;
 import cbcoder.webapp.Users.model.DTOs.*;
 import cbcoder.webapp.Users.model.Role;
 import cbcoder.webapp.Users.model.User;
-import cbcoder.webapp.Users.repositories.RoleRepository;
+import cbcoder.webapp.Users.model.VerifiedToken;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
 import cbcoder.webapp.Users.repositories.UserRepository;
 import cbcoder.webapp.Users.services.AuthService;
-import org.modelmapper.ModelMapper;
+import cbcoder.webapp.Users.services.TokenRevocationService;
+import cbcoder.webapp.Users.services.UserActivityService;
+import cbcoder.webapp.Users.services.UserSecurityService;
+import io.jsonwebtoken.JwtException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Optional;
 
 
 @Service
 public class AuthServiceImpl implements AuthService {
+	private static final String INVALID_REFRESH_TOKEN = "Invalid refresh token";
 
 	private final UserRepository userRepository;
+	private final UserJdbcRepository userJdbcRepository;
 	private final PasswordEncoder passwordEncoder;
 	private final JwtServiceImpl jwtService;
 	private final AuthenticationManager authenticationManager;
-	private final ModelMapper modelMapper;
-	private final RoleRepository roleRepository;
+	private final RoleRegistry roleRegistry;
+	private final TokenRevocationService tokenRevocationService;
+	private final UserSecurityService userSecurityService;
+	private final VerifiedTokenCache verifiedTokenCache;
+	private final AuditService auditService;
+	private final UserActivityService userActivityService;
 
-	public AuthServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtServiceImpl jwtService,
-	                       AuthenticationManager authenticationManager, ModelMapper modelMapper, RoleRepository roleRepository) {
+	public AuthServiceImpl(UserRepository userRepository, UserJdbcRepository userJdbcRepository, PasswordEncoder passwordEncoder, JwtServiceImpl jwtService,
+	                       AuthenticationManager authenticationManager, RoleRegistry roleRegistry,
+	                       TokenRevocationService tokenRevocationService, UserSecurityService userSecurityService,
+	                       VerifiedTokenCache verifiedTokenCache, AuditService auditService,
+	                       UserActivityService userActivityService) {
 		this.userRepository = userRepository;
+		this.userJdbcRepository = userJdbcRepository;
 		this.passwordEncoder = passwordEncoder;
 		this.jwtService = jwtService;
 		this.authenticationManager = authenticationManager;
-		this.modelMapper = modelMapper;
-		this.roleRepository = roleRepository;
+		this.roleRegistry = roleRegistry;
+		this.tokenRevocationService = tokenRevocationService;
+		this.userSecurityService = userSecurityService;
+		this.verifiedTokenCache = verifiedTokenCache;
+		this.auditService = auditService;
+		this.userActivityService = userActivityService;
 	}
 
+	/**
+	 * Register a new user with a single INSERT. There is no existence check beforehand: the unique index on lower(email)
+	 * rejects a taken email, also when two sign-ups for the same email race, and the violation becomes a UserAlreadyExistsException.
+	 * @param request The sign-up details, the email is stored in lower case.
+	 * @return User object containing the saved user details.
+	 */
 	public User register(SignUpRequest request) {
-		UserDTO userDTO = new UserDTO();
-		userDTO.setFirstName(request.firstName());
-		userDTO.setLastName(request.lastName());
-		if (userRepository.existsByEmail(request.email())) {
-			throw new UserAlreadyExistsException("User already exists with email " + request.email());
-		}
-		userDTO.setEmail(request.email());
 		if (request.password().length() < 8) {
 			throw new PasswordLengthNotValidException("Password should be at least 8 characters long");
 		}
-		userDTO.setPassword(passwordEncoder.encode(request.password()));
-		userDTO.setEnabled(true);
-		Optional<Role> role = roleRepository.findByRoleId(request.roles().getFirst().getRoleId());
-		if (role.isPresent()) {
-			userDTO.setRoles(List.of(role.get()));
-		} else {
+		Optional<Role> role = roleRegistry.findByRoleId(request.roles().getFirst().getRoleId());
+		if (role.isEmpty()) {
 			throw new RoleNotFoundException("Role not found");
 		}
-		User user = modelMapper.map(userDTO, User.class);
-		return userRepository.save(user);
+		User user = UserMapper.toUser(UserMapper.toDto(request, passwordEncoder.encode(request.password()), role.get()));
+		try {
+			user.setUserId(userJdbcRepository.insert(user));
+		} catch (DuplicateKeyException e) {
+			throw new UserAlreadyExistsException("User already exists with email " + user.getEmail());
+		}
+		return user;
 	}
 
+	/**
+	 * Authenticate the user and issue a token pair. The password check runs on the bounded hashing executor,
+	 * and the principal loaded by the authentication provider is reused, the user is not queried a second time.
+	 * @param signInRequest The email and password of the user.
+	 * @return JwtAuthResponse with an access token and a refresh token.
+	 */
 	public JwtAuthResponse login(SignInRequest signInRequest) {
-		authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(signInRequest.email(), signInRequest.password()));
-		var user = userRepository.findByEmail(signInRequest.email()).orElseThrow(() -> new IllegalArgumentException("Invalid email or password"));
+		Authentication authentication = authenticationManager.authenticate(
+				new UsernamePasswordAuthenticationToken(signInRequest.email(), signInRequest.password()));
+		if (!(authentication.getPrincipal() instanceof User user)) {
+			throw new IllegalArgumentException("Invalid email or password");
+		}
 		var jwt = jwtService.generateJwtToken(user);
 		var refreshToken = jwtService.generateRefreshJwtToken(new HashMap<>(), user);
+		auditService.record(AuditAction.LOGIN, user.getEmail(), user.getEmail(), null);
+		userActivityService.recordLogin(user.getUserId());
 
 		return new JwtAuthResponse(jwt, refreshToken);
 
 	}
 
+	/**
+	 * Exchange a refresh token for a new token pair. Refresh tokens are single use: the presented token is revoked
+	 * in the same statement that checks it was not revoked before. A second use of the same token means it was stolen,
+	 * so every token of the user is invalidated by bumping the user's token version.
+	 * @param refreshTokenRequest The request holding the refresh token.
+	 * @return JwtAuthResponse with a new access token and a new refresh token.
+	 */
 	@Override
 	public JwtAuthResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
-		String email = jwtService.getUsername(refreshTokenRequest.getRefreshToken());
-		User user = userRepository.findByEmail(email).orElseThrow();
-		if (jwtService.validateToken(refreshTokenRequest.getRefreshToken(), user)) {
-			var jwt = jwtService.generateJwtToken(user);
-			var newRefreshToken = jwtService.generateRefreshJwtToken(new HashMap<>(), user);
-			return new JwtAuthResponse(jwt, newRefreshToken);
-		} else {
-			throw new IllegalArgumentException("Invalid refresh token");
+		VerifiedToken token = verifyOrNull(refreshTokenRequest.getRefreshToken());
+		if (token == null || token.id() == null || !token.isRefreshToken() || token.tokenVersion() == null) {
+			throw new NotAuthorizedAccessException(INVALID_REFRESH_TOKEN);
+		}
+		// A valid token of a user deleted since is rejected the same way.
+		User user = userRepository.findByEmail(token.subject())
+				.orElseThrow(() -> new NotAuthorizedAccessException(INVALID_REFRESH_TOKEN));
+		if (!jwtService.isTokenValid(token, user) || token.tokenVersion() != user.getTokenVersion()) {
+			throw new NotAuthorizedAccessException(INVALID_REFRESH_TOKEN);
+		}
+		if (!tokenRevocationService.revoke(token.id(), token.expiration())) {
+			user.incrementTokenVersion();
+			userRepository.save(user);
+			userSecurityService.evictUser(user.getEmail());
+			auditService.record(AuditAction.REFRESH_TOKEN_REUSED, user.getEmail(), user.getEmail(), token.id());
+			throw new NotAuthorizedAccessException("Refresh token was already used, all sessions of the user are revoked");
+		}
+		var jwt = jwtService.generateJwtToken(user);
+		var newRefreshToken = jwtService.generateRefreshJwtToken(new HashMap<>(), user);
+		auditService.record(AuditAction.TOKEN_REFRESHED, user.getEmail(), user.getEmail(), null);
+		return new JwtAuthResponse(jwt, newRefreshToken);
+	}
+
+	/**
+	 * Revoke the refresh token and, when given, the access token of the current session.
+	 * Invalid or expired tokens are ignored, there is nothing left to revoke for them.
+	 * @param accessToken The access token from the Authorization header, may be null.
+	 * @param refreshTokenRequest The request holding the refresh token.
+	 */
+	@Override
+	public void logout(String accessToken, RefreshTokenRequest refreshTokenRequest) {
+		VerifiedToken refreshToken = verifyOrNull(refreshTokenRequest.getRefreshToken());
+		if (refreshToken != null && refreshToken.id() != null) {
+			tokenRevocationService.revoke(refreshToken.id(), refreshToken.expiration());
+		}
+		VerifiedToken token = verifyOrNull(accessToken);
+		if (token != null && token.id() != null) {
+			tokenRevocationService.revoke(token.id(), token.expiration());
+			verifiedTokenCache.evict(accessToken);
+		}
+	}
+
+	private VerifiedToken verifyOrNull(String jwt) {
+		if (jwt == null || jwt.isBlank()) {
+			return null;
+		}
+		try {
+			return jwtService.verifyToken(jwt);
+		} catch (JwtException | IllegalArgumentException e) {
+			return null;
 		}
 	}
 }
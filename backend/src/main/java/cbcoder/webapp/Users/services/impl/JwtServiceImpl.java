@@ -1,88 +1,162 @@
 package cbcoder.webapp.Users.services.impl;
 
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.VerifiedToken;
+import cbcoder.webapp.Users.model.enums.TokenType;
 import cbcoder.webapp.Users.services.JwtService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This utility class simplifies the generation, extraction and validations of JWT tokens, Enhancing security and enabling stateless authentication mechanisms.
- *
+ * The signing key and the parser are built once at startup, both are immutable and thread-safe.
+ * Every token carries its type (access or refresh) and the user's token version, so a token issued before a password
+ * or role change, or a refresh token presented as a bearer token, is rejected.
+ * In self-contained mode access tokens also carry the user's roles, so they can be authenticated without a database lookup.
+ * Every verification is timed in webapp.jwt.verification, tagged with its outcome.
  */
 @Service
 public class JwtServiceImpl implements JwtService { // implemented number 1.
+	private static final String ROLES_CLAIM = "roles";
+	private static final String VERSION_CLAIM = "ver";
+	private static final String TYPE_CLAIM = "typ";
 
-	@Value("${webapp.security.jwt.secret}")
-	private String secretKey;
-	@Value("${webapp.security.jwt.expiration}")
-	private long jwtExpiration;
-	@Value("${webapp.security.jwt.expiration-refresh}")
-	private long jwtExpirationRefresh;
+	private final long jwtExpiration;
+	private final long jwtExpirationRefresh;
+	private final boolean selfContained;
+	private final SecretKey signingKey;
+	private final JwtParser jwtParser;
+	private final Timer validTimer;
+	private final Timer invalidTimer;
+
+	public JwtServiceImpl(@Value("${webapp.security.jwt.secret}") String secretKey,
+	                      @Value("${webapp.security.jwt.expiration}") long jwtExpiration,
+	                      @Value("${webapp.security.jwt.expiration-refresh}") long jwtExpirationRefresh,
+	                      @Value("${webapp.security.jwt.self-contained.enabled:false}") boolean selfContained,
+	                      MeterRegistry meterRegistry) {
+		this.jwtExpiration = jwtExpiration;
+		this.jwtExpirationRefresh = jwtExpirationRefresh;
+		this.selfContained = selfContained;
+		this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+		this.jwtParser = Jwts.parser()
+				.verifyWith(signingKey)
+				.build();
+		this.validTimer = verificationTimer(meterRegistry, "valid");
+		this.invalidTimer = verificationTimer(meterRegistry, "invalid");
+	}
+
+	private static Timer verificationTimer(MeterRegistry meterRegistry, String outcome) {
+		return Timer.builder("webapp.jwt.verification")
+				.description("Time to parse a JWT and check its signature and expiration")
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
 
 	@Override
 	public String generateJwtToken(UserDetails userDetails) {
-		return Jwts.builder()
+		JwtBuilder builder = Jwts.builder().claim(TYPE_CLAIM, TokenType.ACCESS.claim());
+		if (userDetails instanceof User user) {
+			builder.claim(VERSION_CLAIM, user.getTokenVersion());
+			if (selfContained) {
+				builder.claim(ROLES_CLAIM, user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+			}
+		}
+		return builder
+				.id(UUID.randomUUID().toString())
 				.subject(userDetails.getUsername())
 				.issuedAt(new Date(System.currentTimeMillis()))
 				.expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-				.signWith(getSigningKey())
+				.signWith(signingKey)
 				.compact();
 	}
 
-	private SecretKey getSigningKey() {
-		byte[] keyBytes = secretKey.getBytes();
-		return Keys.hmacShaKeyFor(keyBytes);
-	}
-
-	private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-		final Claims claims = extractAllClaims(token);
-		return claimsResolver.apply(claims);
+	/**
+	 * Parse the token and verify its signature and expiration in a single pass.
+	 * Callers should keep the returned object instead of asking for single claims again.
+	 * @param token The compact JWS string.
+	 * @return VerifiedToken holding the subject, expiration and issued-at claims.
+	 * @throws JwtException if the token is malformed, has an invalid signature or is expired.
+	 */
+	@Override
+	public VerifiedToken verifyToken(String token) {
+		long start = System.nanoTime();
+		Claims claims;
+		try {
+			claims = jwtParser.parseSignedClaims(token).getPayload();
+		} catch (RuntimeException e) {
+			invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+		validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		List<?> roles = claims.get(ROLES_CLAIM, List.class);
+		Number tokenVersion = claims.get(VERSION_CLAIM, Number.class);
+		return new VerifiedToken(
+				claims.getId(),
+				claims.getSubject(),
+				claims.getExpiration().toInstant(),
+				claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+				TokenType.fromClaim(claims.get(TYPE_CLAIM, String.class)),
+				roles != null ? roles.stream().map(String::valueOf).toList() : null,
+				tokenVersion != null ? tokenVersion.longValue() : null);
 	}
 
-	private Claims extractAllClaims(String token) {
-		return Jwts.parser()
-				.verifyWith(getSigningKey())
-				.build()
-				.parseSignedClaims(token)
-				.getPayload();
+	@Override
+	public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+		return token.subject().equals(userDetails.getUsername()) && !token.isExpired(Instant.now());
 	}
 
 	@Override
 	public String getUsername(String token) {
-		return extractClaim(token, Claims::getSubject);
+		return verifyToken(token).subject();
 	}
 
 	@Override
 	public boolean isTokenExpired(String token) {
-		return extractExpiration(token).before(new Date());
-	}
-
-	private Date extractExpiration(String token) {
-		return extractClaim(token, Claims::getExpiration);
+		return verifyToken(token).isExpired(Instant.now());
 	}
 
 	@Override
 	public boolean validateToken(String token, UserDetails userDetails) {
-		final String username = getUsername(token);
-		return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+		return isTokenValid(verifyToken(token), userDetails);
 	}
 
+	/**
+	 * Generate a refresh token with a unique id, so it can be rotated and revoked.
+	 * The token carries the user's token version, a refresh token issued before a password or role change is rejected,
+	 * and the refresh type, so it cannot be used as a bearer token.
+	 * @param claims Extra claims to add to the token.
+	 * @param userDetails The user the token is issued to.
+	 * @return The compact JWS string.
+	 */
 	@Override
 	public String generateRefreshJwtToken(Map<String, Object> claims, UserDetails userDetails) {
-		return Jwts
-				.builder()
+		JwtBuilder builder = Jwts.builder();
+		if (userDetails instanceof User user) {
+			builder.claim(VERSION_CLAIM, user.getTokenVersion());
+		}
+		return builder
 				.claims(claims)
+				.claim(TYPE_CLAIM, TokenType.REFRESH.claim())
+				.id(UUID.randomUUID().toString())
 				.subject(userDetails.getUsername())
 				.issuedAt(new Date(System.currentTimeMillis()))
 				.expiration(new Date(System.currentTimeMillis() + jwtExpirationRefresh))
-				.signWith(getSigningKey())
+				.signWith(signingKey)
 				.compact();
 	}
 }
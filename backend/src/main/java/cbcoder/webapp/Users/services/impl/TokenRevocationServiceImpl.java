@@ -0,0 +1,107 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.repositories.RevokedTokenRepository;
+import cbcoder.webapp.Users.services.TokenRevocationService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Revocation store of token ids (jti). The revoked_tokens table is the source of truth,
+ * an in-memory Bloom filter in front of it answers "not revoked" for almost every token without touching the database.
+ * Only a filter hit (a revoked token or a rare false positive) costs a primary-key lookup.
+ * The filter is rebuilt from the table when expired rows are pruned, which also picks up revocations made by other instances.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TokenRevocationServiceImpl.class);
+
+	private final RevokedTokenRepository revokedTokenRepository;
+	private final long expectedInsertions;
+	private final double falsePositiveRate;
+
+	// Guards the swap of filter and rebuilding against revoke, so a jti is never written only to a discarded filter.
+	private final Object filterLock = new Object();
+	private volatile BloomFilter filter;
+	private BloomFilter rebuilding;
+	private long lastActiveCount;
+
+	public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository,
+	                                  @Value("${webapp.security.revocation.expected-insertions:100000}") long expectedInsertions,
+	                                  @Value("${webapp.security.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+		this.revokedTokenRepository = revokedTokenRepository;
+		this.expectedInsertions = expectedInsertions;
+		this.falsePositiveRate = falsePositiveRate;
+		this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+	}
+
+	@PostConstruct
+	void loadRevokedTokens() {
+		rebuildFilter();
+	}
+
+	@Override
+	public boolean isRevoked(String jti) {
+		if (jti == null || !filter.mightContain(jti)) {
+			return false;
+		}
+		return revokedTokenRepository.existsById(jti);
+	}
+
+	/**
+	 * Revoke a token id until the token expires.
+	 * @param jti The id of the token.
+	 * @param expiresAt The expiration of the token, after it the row can be pruned.
+	 * @return true if the token was revoked by this call, false if it was revoked before (reuse).
+	 */
+	@Override
+	public boolean revoke(String jti, Instant expiresAt) {
+		boolean revoked = revokedTokenRepository.revoke(jti, expiresAt) == 1;
+		synchronized (filterLock) {
+			filter.put(jti);
+			if (rebuilding != null) {
+				rebuilding.put(jti);
+			}
+		}
+		return revoked;
+	}
+
+	/**
+	 * Delete the rows of tokens that expired anyway and rebuild the Bloom filter without them.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${webapp.security.revocation.prune-interval:PT1M}",
+			initialDelayString = "${webapp.security.revocation.prune-interval:PT1M}")
+	public void pruneExpired() {
+		int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+		if (deleted > 0) {
+			logger.debug("Pruned {} expired revoked tokens", deleted);
+		}
+		rebuildFilter();
+	}
+
+	private synchronized void rebuildFilter() {
+		BloomFilter next = new BloomFilter(Math.max(expectedInsertions, lastActiveCount * 2), falsePositiveRate);
+		// Revocations made while the table is read are written to both filters.
+		synchronized (filterLock) {
+			rebuilding = next;
+		}
+		List<String> active = revokedTokenRepository.findActiveJtis(Instant.now());
+		active.forEach(next::put);
+		synchronized (filterLock) {
+			filter = next;
+			rebuilding = null;
+		}
+		lastActiveCount = active.size();
+		if (active.size() > expectedInsertions) {
+			logger.warn("{} revoked tokens exceed the expected {}, the filter is resized on the next rebuild", active.size(), expectedInsertions);
+		}
+	}
+}
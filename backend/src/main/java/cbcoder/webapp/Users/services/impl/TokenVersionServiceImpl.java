@@ -0,0 +1,52 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.repositories.UserRepository;
+import cbcoder.webapp.Users.services.TokenVersionService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Keeps the current token version of recently seen users in memory, so self-contained access tokens can be checked without loading the user.
+ * A miss costs one single-column query. Deleted users are cached as {@link #DELETED} and every token of theirs is rejected.
+ */
+@Service
+public class TokenVersionServiceImpl implements TokenVersionService {
+	private static final long DELETED = -1L;
+
+	private final LoadingCache<String, Long> versions;
+
+	public TokenVersionServiceImpl(UserRepository userRepository,
+	                               @Value("${webapp.security.jwt.self-contained.version-cache.max-size:10000}") long maxSize,
+	                               @Value("${webapp.security.jwt.self-contained.version-cache.ttl:30s}") Duration ttl,
+	                               MeterRegistry meterRegistry) {
+		this.versions = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build(email -> userRepository.findTokenVersionByEmail(email).orElse(DELETED));
+		CaffeineCacheMetrics.monitor(meterRegistry, versions, "users.token-versions");
+	}
+
+	/**
+	 * Check that a token was issued for the current version of the user.
+	 * @param email The subject of the token.
+	 * @param tokenVersion The version embedded in the token.
+	 * @return true if the user still exists and nothing changed since the token was issued.
+	 */
+	@Override
+	public boolean isCurrent(String email, long tokenVersion) {
+		long current = versions.get(email);
+		return current != DELETED && current == tokenVersion;
+	}
+
+	@Override
+	public void evict(String email) {
+		versions.invalidate(email);
+	}
+}
@@ -0,0 +1,85 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.model.LoginActivity;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
+import cbcoder.webapp.Users.services.UserActivityService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind of the last login time and login count of users. A login only merges into an in-memory entry of the
+ * user, and the pending entries are written every flush interval with one UPDATE per chunk of users, so any number
+ * of logins of the same user between two flushes costs one row update. A crash loses at most one interval of activity.
+ */
+@Service
+public class UserActivityServiceImpl implements UserActivityService {
+	private static final Logger logger = LoggerFactory.getLogger(UserActivityServiceImpl.class);
+
+	private final ConcurrentHashMap<Long, LoginActivity> pending = new ConcurrentHashMap<>();
+	private final UserJdbcRepository userJdbcRepository;
+	private final int rowsPerStatement;
+
+	public UserActivityServiceImpl(UserJdbcRepository userJdbcRepository,
+	                               @Value("${webapp.users.activity.rows-per-statement:1000}") int rowsPerStatement) {
+		this.userJdbcRepository = userJdbcRepository;
+		this.rowsPerStatement = rowsPerStatement;
+	}
+
+	@Override
+	public void recordLogin(Long userId) {
+		pending.merge(userId, new LoginActivity(userId, 1, LocalDateTime.now()), LoginActivity::plus);
+	}
+
+	/**
+	 * Write the pending activity. Each entry is removed atomically before it is written, logins recorded meanwhile
+	 * start a new entry for the next flush. A chunk that cannot be written is merged back and retried next time.
+	 * @return The number of users whose activity was written.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${webapp.users.activity.flush-interval:PT5S}",
+			initialDelayString = "${webapp.users.activity.flush-interval:PT5S}")
+	public int flush() {
+		List<LoginActivity> chunk = new ArrayList<>();
+		int written = 0;
+		for (Long userId : pending.keySet()) {
+			LoginActivity activity = pending.remove(userId);
+			if (activity != null) {
+				chunk.add(activity);
+			}
+			if (chunk.size() == rowsPerStatement) {
+				written += write(chunk);
+				chunk = new ArrayList<>();
+			}
+		}
+		return written + write(chunk);
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		flush();
+	}
+
+	private int write(List<LoginActivity> chunk) {
+		if (chunk.isEmpty()) {
+			return 0;
+		}
+		try {
+			userJdbcRepository.addLogins(chunk);
+			return chunk.size();
+		} catch (DataAccessException e) {
+			logger.warn("Could not write the login activity of {} users, retrying on the next flush", chunk.size(), e);
+			chunk.forEach(activity -> pending.merge(activity.userId(), activity, LoginActivity::plus));
+			return 0;
+		}
+	}
+}
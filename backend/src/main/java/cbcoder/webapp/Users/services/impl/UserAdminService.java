@@ -1,9 +1,13 @@
 package cbcoder.webapp.Users.services.impl;
 
+import cbcoder.webapp.Users.model.DTOs.BulkRoleRequest;
+import cbcoder.webapp.Users.model.DTOs.BulkRoleResult;
 import cbcoder.webapp.Users.model.DTOs.UserDTO;
 import cbcoder.webapp.Users.model.User;
 
 public interface UserAdminService {
 	User addAdminRole(UserDTO userDTO);
 	User revokeAdmin(Long userId);
+	BulkRoleResult grantRole(BulkRoleRequest request);
+	BulkRoleResult revokeRole(BulkRoleRequest request);
 }
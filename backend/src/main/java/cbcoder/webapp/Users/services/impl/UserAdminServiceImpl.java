@@ -1,29 +1,41 @@
 package cbcoder.webapp.Users.services.impl;
 
+import cbcoder.webapp.Audit.model.enums.AuditAction;
+import cbcoder.webapp.Audit.services.AuditService;
 import cbcoder.webapp.Exceptions.*;
+import cbcoder.webapp.Users.model.DTOs.BulkRoleRequest;
+import cbcoder.webapp.Users.model.DTOs.BulkRoleResult;
 import cbcoder.webapp.Users.model.DTOs.UserDTO;
-import cbcoder.webapp.Users.model.Role;
 import cbcoder.webapp.Users.model.User;
 import cbcoder.webapp.Users.model.enums.RoleEnum;
-import cbcoder.webapp.Users.repositories.RoleRepository;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
 import cbcoder.webapp.Users.repositories.UserRepository;
+import cbcoder.webapp.Users.services.UserSecurityService;
+import jakarta.persistence.EntityManagerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Service
 public class UserAdminServiceImpl implements UserAdminService{
-	private static final String ROLE_NOT_FOUND = "Role not found with id ";
-
 	private final UserRepository userRepository;
-	private final RoleRepository roleRepository;
+	private final UserJdbcRepository userJdbcRepository;
+	private final UserSecurityService userSecurityService;
+	private final EntityManagerFactory entityManagerFactory;
+	private final AuditService auditService;
 
-	public UserAdminServiceImpl(UserRepository userRepository, RoleRepository roleRepository) {
+	public UserAdminServiceImpl(UserRepository userRepository, UserJdbcRepository userJdbcRepository,
+	                            UserSecurityService userSecurityService, EntityManagerFactory entityManagerFactory,
+	                            AuditService auditService) {
 		this.userRepository = userRepository;
-		this.roleRepository = roleRepository;
+		this.userJdbcRepository = userJdbcRepository;
+		this.userSecurityService = userSecurityService;
+		this.entityManagerFactory = entityManagerFactory;
+		this.auditService = auditService;
 	}
 
 
@@ -42,20 +54,21 @@ public class UserAdminServiceImpl implements UserAdminService{
 			throw new NotAuthorizedAccessException("Only superadmin can create an admin");
 		}
 		User user = getUserById(userDTO.getUserId());
-		if (!user.getEmail().equals(userDTO.getEmail())) {
+		if (!user.getEmail().equals(User.normalizeEmail(userDTO.getEmail()))) {
 			throw new EmailNotBindingException("Email not matching with the user email");
 		}
 
 		// Check if the user already has the admin role
-		Role adminRole = roleRepository.findByRoleName(RoleEnum.ROLE_ADMIN)
-				.orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND + RoleEnum.ROLE_ADMIN.name()));
-
-		if (user.getRoles().contains(adminRole)) {
+		if (user.hasRole(RoleEnum.ROLE_ADMIN)) {
 			throw new UserAlreadyExistsException("User already has the admin role");
 		} else {
-			user.getRoles().add(adminRole);
+			user.addRole(RoleEnum.ROLE_ADMIN);
 			user.setUpdatedDate(LocalDateTime.now());
-			return userRepository.save(user);
+			user.incrementTokenVersion();
+			User savedUser = userRepository.save(user);
+			userSecurityService.evictUser(savedUser.getEmail());
+			auditService.record(AuditAction.ROLE_GRANTED, savedUser.getEmail(), RoleEnum.ROLE_ADMIN.name());
+			return savedUser;
 		}
 
 	}
@@ -64,6 +77,7 @@ public class UserAdminServiceImpl implements UserAdminService{
 	 * Revoke the admin role from the user based on the userId passed as a parameter.
 	 * The user is found based on the userId and the admin role is revoked from the user.
 	 * Only the superadmin can revoke the admin role. If the user is not a superadmin, it will throw a NotAuthorizedAccessException.
+	 * The cached principal of the user is evicted, so the revoked admin loses access on the next request.
 	 * @param userId The userId of the user to revoke the admin role.
 	 * @return User object containing the user details with the admin role revoked.
 	 */
@@ -76,17 +90,66 @@ public class UserAdminServiceImpl implements UserAdminService{
 		User user = getUserById(userId);
 
 		// Check if the user already has the admin role
-		Role adminRole = roleRepository.findByRoleName(RoleEnum.ROLE_ADMIN)
-				.orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND + RoleEnum.ROLE_ADMIN.name()));
-
-		if (user.getRoles().contains(adminRole)) {
-			user.getRoles().remove(adminRole);
-			return userRepository.save(user);
+		if (user.hasRole(RoleEnum.ROLE_ADMIN)) {
+			user.removeRole(RoleEnum.ROLE_ADMIN);
+			user.incrementTokenVersion();
+			User savedUser = userRepository.save(user);
+			userSecurityService.evictUser(savedUser.getEmail());
+			auditService.record(AuditAction.ROLE_REVOKED, savedUser.getEmail(), RoleEnum.ROLE_ADMIN.name());
+			return savedUser;
 		} else {
 			throw new RoleNotFoundException("User does not have the admin role");
 		}
 	}
 
+	/**
+	 * Grant a role to many users with a single UPDATE, see {@link #changeRole}.
+	 * @param request The role and either the user ids or the role the users must currently have.
+	 * @return BulkRoleResult with the number of users that received the role.
+	 */
+	@Override
+	public BulkRoleResult grantRole(BulkRoleRequest request) {
+		return changeRole(request, true);
+	}
+
+	/**
+	 * Revoke a role from many users with a single UPDATE, see {@link #changeRole}.
+	 * @param request The role and either the user ids or the role the users must currently have.
+	 * @return BulkRoleResult with the number of users that lost the role.
+	 */
+	@Override
+	public BulkRoleResult revokeRole(BulkRoleRequest request) {
+		return changeRole(request, false);
+	}
+
+	/**
+	 * The change is one set-based statement, atomic on its own, whatever the number of users.
+	 * SUPERADMIN cannot be changed in bulk, so a mistaken filter can never lock every superadmin out.
+	 * The changed users get a new token version and their cached principals are evicted, each change is audited.
+	 */
+	private BulkRoleResult changeRole(BulkRoleRequest request, boolean grant) {
+		if (request.role() == null) {
+			throw new InvalidRoleChangeException("The role to change is required");
+		}
+		if (request.role() == RoleEnum.ROLE_SUPERADMIN) {
+			throw new InvalidRoleChangeException("The superadmin role cannot be changed in bulk");
+		}
+		boolean byIds = request.userIds() != null && !request.userIds().isEmpty();
+		if (byIds == (request.withRole() != null)) {
+			throw new InvalidRoleChangeException("Either userIds or withRole must be given, not both");
+		}
+		List<String> changed = byIds
+				? userJdbcRepository.changeRoleByIds(grant, request.role().bit(), request.userIds())
+				: userJdbcRepository.changeRoleByRole(grant, request.role().bit(), request.withRole().bit());
+		if (!changed.isEmpty()) {
+			entityManagerFactory.getCache().evict(User.class);
+			changed.forEach(userSecurityService::evictUser);
+			AuditAction action = grant ? AuditAction.ROLE_GRANTED : AuditAction.ROLE_REVOKED;
+			changed.forEach(email -> auditService.record(action, email, request.role().name()));
+		}
+		return new BulkRoleResult(request.role(), grant, byIds ? request.userIds().size() : null, changed.size());
+	}
+
 	private User getUserById(Long userId) {
 		Optional<User> userOptional = userRepository.findById(userId);
 		if (userOptional.isPresent()) {
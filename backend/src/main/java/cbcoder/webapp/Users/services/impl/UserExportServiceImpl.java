@@ -0,0 +1,141 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.model.RoleMask;
+import cbcoder.webapp.Users.model.enums.ExportFormat;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
+import cbcoder.webapp.Users.services.UserExportService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.stream.Collectors;
+
+/**
+ * Export of the whole user directory, written row by row from a JDBC cursor to the output stream.
+ * No entity or row object is built and nothing is buffered beyond the driver's fetch size and the generator's buffer,
+ * so heap use does not grow with the number of users.
+ */
+@Service
+public class UserExportServiceImpl implements UserExportService {
+	private static final String[] COLUMNS = {"userId", "firstName", "lastName", "email", "enabled", "createdDate", "updatedDate", "roles"};
+	private static final String ROLE_SEPARATOR = "|";
+
+	private final UserJdbcRepository userJdbcRepository;
+	private final JsonFactory jsonFactory = new JsonFactory();
+	private final CsvFactory csvFactory = new CsvFactory();
+	private final CsvSchema csvSchema;
+	private final int fetchSize;
+
+	public UserExportServiceImpl(UserJdbcRepository userJdbcRepository,
+	                             @Value("${webapp.users.export.fetch-size:1000}") int fetchSize) {
+		this.userJdbcRepository = userJdbcRepository;
+		this.fetchSize = fetchSize;
+		CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+		for (String column : COLUMNS) {
+			schema.addColumn(column);
+		}
+		this.csvSchema = schema.build();
+	}
+
+	/**
+	 * Write all users, ordered by id, in the given format. The output stream is flushed but not closed.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void exportUsers(ExportFormat format, OutputStream output) throws IOException {
+		try (JsonGenerator generator = createGenerator(format, output)) {
+			try {
+				userJdbcRepository.streamAll(fetchSize, resultSet -> writeRow(format, generator, resultSet));
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	private JsonGenerator createGenerator(ExportFormat format, OutputStream output) throws IOException {
+		JsonGenerator generator = switch (format) {
+			case CSV -> {
+				CsvGenerator csvGenerator = csvFactory.createGenerator(output);
+				csvGenerator.setSchema(csvSchema);
+				yield csvGenerator;
+			}
+			case NDJSON -> jsonFactory.createGenerator(output).setRootValueSeparator(new SerializedString("\n"));
+		};
+		return generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	private static void writeRow(ExportFormat format, JsonGenerator generator, ResultSet row) throws SQLException {
+		try {
+			if (format == ExportFormat.CSV) {
+				generator.writeStartArray();
+			} else {
+				generator.writeStartObject();
+			}
+			writeField(format, generator, COLUMNS[0]);
+			generator.writeNumber(row.getLong("user_id"));
+			writeField(format, generator, COLUMNS[1]);
+			generator.writeString(row.getString("first_name"));
+			writeField(format, generator, COLUMNS[2]);
+			generator.writeString(row.getString("last_name"));
+			writeField(format, generator, COLUMNS[3]);
+			generator.writeString(row.getString("email"));
+			writeField(format, generator, COLUMNS[4]);
+			generator.writeBoolean(row.getBoolean("enabled"));
+			writeField(format, generator, COLUMNS[5]);
+			writeTimestamp(format, generator, row.getTimestamp("created_date"));
+			writeField(format, generator, COLUMNS[6]);
+			writeTimestamp(format, generator, row.getTimestamp("updated_date"));
+			writeField(format, generator, COLUMNS[7]);
+			writeRoles(format, generator, row.getInt("role_mask"));
+			if (format == ExportFormat.CSV) {
+				generator.writeEndArray();
+			} else {
+				generator.writeEndObject();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void writeField(ExportFormat format, JsonGenerator generator, String name) throws IOException {
+		if (format == ExportFormat.NDJSON) {
+			generator.writeFieldName(name);
+		}
+	}
+
+	private static void writeTimestamp(ExportFormat format, JsonGenerator generator, Timestamp timestamp) throws IOException {
+		if (timestamp == null && format == ExportFormat.CSV) {
+			// The CSV generator drops nulls inside an array row, which would shift the following columns.
+			generator.writeString("");
+		} else if (timestamp == null) {
+			generator.writeNull();
+		} else {
+			generator.writeString(timestamp.toLocalDateTime().toString());
+		}
+	}
+
+	private static void writeRoles(ExportFormat format, JsonGenerator generator, int roleMask) throws IOException {
+		if (format == ExportFormat.CSV) {
+			generator.writeString(RoleMask.roles(roleMask).stream().map(RoleEnum::name).collect(Collectors.joining(ROLE_SEPARATOR)));
+			return;
+		}
+		generator.writeStartArray();
+		for (RoleEnum role : RoleMask.roles(roleMask)) {
+			generator.writeString(role.name());
+		}
+		generator.writeEndArray();
+	}
+}
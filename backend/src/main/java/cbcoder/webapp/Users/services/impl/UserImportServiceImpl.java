@@ -0,0 +1,224 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Exceptions.InvalidImportFileException;
+import cbcoder.webapp.Users.model.DTOs.UserImportReport;
+import cbcoder.webapp.Users.model.DTOs.UserImportRow;
+import cbcoder.webapp.Users.model.DTOs.UserImportRowResult;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.ImportStatus;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
+import cbcoder.webapp.Users.services.UserImportService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bulk import of users from a CSV or NDJSON stream.
+ * The file is read row by row and handled in chunks of batchSize rows: the passwords of a chunk are hashed in parallel
+ * on a dedicated fork-join pool, then the chunk is written with one JDBC batch. Only the current chunk and the
+ * per-row results are held in memory, never the file.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+	private static final int MIN_PASSWORD_LENGTH = 8;
+	private static final String ROLE_PREFIX = "ROLE_";
+
+	private final UserJdbcRepository userJdbcRepository;
+	private final BCryptPasswordEncoder passwordEncoder;
+	private final ObjectReader csvReader;
+	private final ObjectReader ndjsonReader;
+	private final ForkJoinPool hashingPool;
+	private final int batchSize;
+
+	private record PendingRow(int row, UserImportRow data) {
+	}
+
+	public UserImportServiceImpl(UserJdbcRepository userJdbcRepository, BCryptPasswordEncoder passwordEncoder, ObjectMapper objectMapper,
+	                             @Value("${webapp.users.import.hashing-parallelism:0}") int parallelism,
+	                             @Value("${webapp.users.import.batch-size:500}") int batchSize,
+	                             MeterRegistry meterRegistry) {
+		this.userJdbcRepository = userJdbcRepository;
+		this.passwordEncoder = passwordEncoder;
+		this.batchSize = batchSize;
+		this.hashingPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+		new ExecutorServiceMetrics(hashingPool, "import-hashing", Tags.empty()).bindTo(meterRegistry);
+		this.csvReader = new CsvMapper()
+				.enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE)
+				.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+				.readerFor(UserImportRow.class)
+				.with(CsvSchema.emptySchema().withHeader());
+		this.ndjsonReader = objectMapper.readerFor(UserImportRow.class);
+	}
+
+	@Override
+	public UserImportReport importCsv(InputStream input) {
+		try (MappingIterator<UserImportRow> rows = csvReader.readValues(input)) {
+			return importRows(rows);
+		} catch (IOException e) {
+			throw new InvalidImportFileException("Unable to read the CSV file: " + e.getMessage());
+		}
+	}
+
+	@Override
+	public UserImportReport importNdjson(InputStream input) {
+		try (MappingIterator<UserImportRow> rows = ndjsonReader.readValues(input)) {
+			return importRows(rows);
+		} catch (IOException e) {
+			throw new InvalidImportFileException("Unable to read the NDJSON file: " + e.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		hashingPool.shutdown();
+	}
+
+	/**
+	 * A row that cannot be mapped is reported as invalid and the import goes on with the next row.
+	 * Malformed input the parser cannot recover from stops the import, the rows read so far are kept.
+	 */
+	private UserImportReport importRows(MappingIterator<UserImportRow> rows) {
+		List<UserImportRowResult> results = new ArrayList<>();
+		List<PendingRow> chunk = new ArrayList<>(batchSize);
+		int rowNumber = 0;
+		boolean completed = true;
+		while (true) {
+			UserImportRow row;
+			try {
+				if (!rows.hasNextValue()) {
+					break;
+				}
+				rowNumber++;
+				row = rows.nextValue();
+			} catch (JsonParseException e) {
+				results.add(invalid(Math.max(rowNumber, 1), null, "Malformed input, import stopped: " + e.getOriginalMessage()));
+				completed = false;
+				break;
+			} catch (DatabindException e) {
+				results.add(invalid(rowNumber, null, e.getOriginalMessage()));
+				continue;
+			} catch (IOException e) {
+				results.add(invalid(Math.max(rowNumber, 1), null, "Unable to read the file, import stopped: " + e.getMessage()));
+				completed = false;
+				break;
+			}
+			String error = validate(row);
+			if (error != null) {
+				results.add(invalid(rowNumber, row.email(), error));
+				continue;
+			}
+			chunk.add(new PendingRow(rowNumber, row));
+			if (chunk.size() == batchSize) {
+				results.addAll(write(chunk));
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			results.addAll(write(chunk));
+		}
+		results.sort(Comparator.comparingInt(UserImportRowResult::row));
+		return report(results, completed);
+	}
+
+	private List<UserImportRowResult> write(List<PendingRow> chunk) {
+		List<User> users = hashingPool.submit(() -> chunk.parallelStream().map(this::toUser).toList()).join();
+		int[] counts = userJdbcRepository.insertAll(users);
+		List<UserImportRowResult> results = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			PendingRow pending = chunk.get(i);
+			String email = users.get(i).getEmail();
+			results.add(counts[i] == 0
+					? new UserImportRowResult(pending.row(), email, ImportStatus.DUPLICATE, "User already exists with email " + email)
+					: new UserImportRowResult(pending.row(), email, ImportStatus.CREATED, null));
+		}
+		return results;
+	}
+
+	private User toUser(PendingRow pending) {
+		UserImportRow row = pending.data();
+		User user = new User(null, null, null, row.email().trim(),
+				passwordEncoder.encode(row.password()), true, List.of(parseRole(row.role())));
+		// Through the setters, so imported names are capitalized like the ones of the sign-up and the API.
+		user.setFirstName(normalizeSpaces(row.firstName()));
+		user.setLastName(normalizeSpaces(row.lastName()));
+		return user;
+	}
+
+	private static String normalizeSpaces(String name) {
+		return name.trim().replaceAll("\\s+", " ");
+	}
+
+	private static String validate(UserImportRow row) {
+		if (isShorterThan(row.firstName(), 2) || row.firstName().trim().length() > 50) {
+			return "First name should be between 2 and 50 characters";
+		}
+		if (isShorterThan(row.lastName(), 2) || row.lastName().trim().length() > 50) {
+			return "Last name should be between 2 and 50 characters";
+		}
+		if (row.email() == null || !row.email().trim().matches("[^@\\s]+@[^@\\s]+")) {
+			return "Email should be valid";
+		}
+		if (row.password() == null || row.password().length() < MIN_PASSWORD_LENGTH) {
+			return "Password should be at least 8 characters long";
+		}
+		if (parseRole(row.role()) == null) {
+			return "Role not found: " + row.role();
+		}
+		return null;
+	}
+
+	private static boolean isShorterThan(String value, int length) {
+		return value == null || value.trim().length() < length;
+	}
+
+	private static RoleEnum parseRole(String role) {
+		if (role == null || role.isBlank()) {
+			return null;
+		}
+		String name = role.trim().toUpperCase();
+		try {
+			return RoleEnum.valueOf(name.startsWith(ROLE_PREFIX) ? name : ROLE_PREFIX + name);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static UserImportRowResult invalid(int row, String email, String message) {
+		return new UserImportRowResult(row, email, ImportStatus.INVALID, message);
+	}
+
+	private static UserImportReport report(List<UserImportRowResult> results, boolean completed) {
+		int created = 0;
+		int duplicates = 0;
+		int invalid = 0;
+		for (UserImportRowResult result : results) {
+			switch (result.status()) {
+				case CREATED -> created++;
+				case DUPLICATE -> duplicates++;
+				case INVALID -> invalid++;
+			}
+		}
+		return new UserImportReport(results.size(), created, duplicates, invalid, completed, List.copyOf(results));
+	}
+}
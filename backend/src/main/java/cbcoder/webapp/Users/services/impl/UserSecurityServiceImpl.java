@@ -1,29 +1,78 @@
 package cbcoder.webapp.Users.services.impl;
 
+import cbcoder.webapp.Users.config.VerifiedTokenCache;
+import cbcoder.webapp.Users.model.User;
 import cbcoder.webapp.Users.repositories.UserRepository;
+import cbcoder.webapp.Users.services.TokenVersionService;
 import cbcoder.webapp.Users.services.UserSecurityService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
 public class UserSecurityServiceImpl implements UserSecurityService {
 
 	private final UserRepository userRepository;
+	private final VerifiedTokenCache verifiedTokenCache;
+	private final TokenVersionService tokenVersionService;
+	private final Cache<String, UserDetails> userCache;
+	private final UserDetailsService userDetailsService;
 
-	public UserSecurityServiceImpl(UserRepository userRepository) {
+	public UserSecurityServiceImpl(UserRepository userRepository, VerifiedTokenCache verifiedTokenCache,
+	                               TokenVersionService tokenVersionService,
+	                               @Value("${webapp.security.user-cache.max-size:10000}") long maxSize,
+	                               @Value("${webapp.security.user-cache.ttl:5m}") Duration ttl,
+	                               MeterRegistry meterRegistry) {
 		this.userRepository = userRepository;
+		this.verifiedTokenCache = verifiedTokenCache;
+		this.tokenVersionService = tokenVersionService;
+		this.userCache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, userCache, "users.details");
+		Timer loadTimer = Timer.builder("webapp.users.load")
+				.description("Time of loadUserByUsername, cache hits included")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.userDetailsService = email -> loadTimer.record(() -> userCache.get(User.normalizeEmail(email), this::loadUser));
 	}
 
+	/**
+	 * The returned service serves principals from a bounded cache keyed by email.
+	 * Entries live at most for the configured TTL and are dropped by {@link #evictUser(String)} whenever a user is changed.
+	 * @return UserDetailsService backed by the principal cache.
+	 */
 	@Override
 	public UserDetailsService userDetailsService() {
-		return new UserDetailsService() {
-			@Override
-			public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-				return userRepository.findByEmail(email)
-						.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-			}
-		};
+		return userDetailsService;
+	}
+
+	/**
+	 * Remove the cached principal, the cached tokens and the cached token version of a user, so the next request reads the user from the database.
+	 * Must be called after any change to the user's password, roles or existence.
+	 * @param email The email (username) of the changed user.
+	 */
+	@Override
+	public void evictUser(String email) {
+		String username = User.normalizeEmail(email);
+		userCache.invalidate(username);
+		verifiedTokenCache.evictUser(username);
+		tokenVersionService.evict(username);
+	}
+
+	private UserDetails loadUser(String email) {
+		return userRepository.findByEmail(email)
+				.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 	}
 }
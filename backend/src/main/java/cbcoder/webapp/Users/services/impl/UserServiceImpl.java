@@ -1,15 +1,25 @@
 package cbcoder.webapp.Users.services.impl;
 
 import cbcoder.webapp.Exceptions.EmailNotBindingException;
+import cbcoder.webapp.Exceptions.InvalidPageRequestException;
 import cbcoder.webapp.Exceptions.UserNotFoundException;
+import cbcoder.webapp.Users.model.DTOs.CursorPage;
 import cbcoder.webapp.Users.model.DTOs.UserDTO;
+import cbcoder.webapp.Users.model.DTOs.UserView;
 import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.UserCursor;
+import cbcoder.webapp.Users.model.enums.UserSortField;
 import cbcoder.webapp.Users.repositories.UserRepository;
+import cbcoder.webapp.Users.services.UserSecurityService;
 import cbcoder.webapp.Users.services.UserService;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -17,14 +27,19 @@ import java.util.*;
 @Service
 public class UserServiceImpl implements UserService {
 	private static final String USER_NOT_FOUND = "User not found with id ";
+	// Below this many rows the planner estimate is not trusted and an exact count is cheap anyway.
+	private static final long EXACT_COUNT_THRESHOLD = 10_000;
+	private static final int MAX_PAGE_SIZE = 500;
 
 	private final UserRepository userRepository;
 	private final PasswordEncoder passwordEncoder;
+	private final UserSecurityService userSecurityService;
 
 
-	public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+	public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, UserSecurityService userSecurityService) {
 		this.userRepository = userRepository;
 		this.passwordEncoder = passwordEncoder;
+		this.userSecurityService = userSecurityService;
 	}
 
 
@@ -32,6 +47,7 @@ public class UserServiceImpl implements UserService {
 	 * Update the user details in the database. The user details are updated based on the userId.
 	 * The user details are updated based on the userDTO object passed as a parameter.
 	 * The userDTO object contains the updated user details.
+	 * The cached principal of the user is evicted, so the new password is used right away.
 	 * @param userId The userId of the user to be updated.
 	 * @param userDTO The userDTO object containing the updated user details.
 	 * @return User object containing the updated user details.
@@ -41,12 +57,15 @@ public class UserServiceImpl implements UserService {
 		Optional<User> userOptional = userRepository.findById(userId);
 		if (userOptional.isPresent()) {
 			User user = userOptional.get();
-			if (userDTO.getEmail().equals(user.getEmail())) {
+			if (user.getEmail().equals(User.normalizeEmail(userDTO.getEmail()))) {
 				user.setFirstName(userDTO.getFirstName());
 				user.setLastName(userDTO.getLastName());
 				user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
 				user.setUpdatedDate(LocalDateTime.now());
-				return userRepository.save(user);
+				user.incrementTokenVersion();
+				User savedUser = userRepository.save(user);
+				userSecurityService.evictUser(savedUser.getEmail());
+				return savedUser;
 			} else {
 				throw new EmailNotBindingException("Email not matching with the user email");
 			}
@@ -57,31 +76,98 @@ public class UserServiceImpl implements UserService {
 
 	/**
 	 * Get all users from the database with pagination support and sorting by a field in ascending order by default.
-	 * @return Page<User> object containing the users in the database.
+	 * The total is the planner's row estimate (pg_class.reltuples) instead of a count(*) over the whole table,
+	 * it is exact only for small tables. Use {@link #scrollUsers} for deep pages.
+	 * The page is read as UserView rows in a single query, no entity is loaded.
+	 * @return Page<UserView> object containing the users in the database.
 	 */
 	@Override
-	public Page<User> getAllUsers(Pageable pageable) {
-		Page<User> users = userRepository.findAll(pageable);
+	@Transactional(readOnly = true)
+	public Page<UserView> getAllUsers(Pageable pageable) {
+		Slice<UserView> users = userRepository.findViewSlice(pageable);
 		if(users.isEmpty()) {
 			throw new UserNotFoundException("No users found in the database");
 		}
-		return users;
+		return new PageImpl<>(users.getContent(), pageable, countUsers());
+	}
+
+	/**
+	 * Get one page of users after the position of the cursor, sorted by an indexed column and then by userId.
+	 * Every page is read with an index seek, so page 10,000 costs the same as page 1, and no count is needed.
+	 * @param cursor The cursor returned with the previous page, null or empty for the first page.
+	 * @param pageSize The number of users per page, between 1 and 500.
+	 * @param sortBy The sort column of the first page, later pages keep the sort column of their cursor.
+	 * @return CursorPage<UserView> with the users and the cursor of the next page.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<UserView> scrollUsers(String cursor, int pageSize, UserSortField sortBy) {
+		if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+			throw new InvalidPageRequestException("The page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		Pageable limit = PageRequest.of(0, pageSize + 1);
+		UserCursor position = cursor == null || cursor.isEmpty() ? null : UserCursor.decode(cursor);
+		UserSortField field = position != null ? position.sortBy() : sortBy;
+		List<UserView> users = switch (field) {
+			case USER_ID -> position == null
+					? userRepository.scrollFirstByUserId(limit)
+					: userRepository.scrollByUserId(position.lastUserId(), limit);
+			case LAST_NAME -> position == null
+					? userRepository.scrollFirstByLastName(limit)
+					: userRepository.scrollByLastName(position.lastValue(), position.lastUserId(), limit);
+			case CREATED_DATE -> position == null
+					? userRepository.scrollFirstByCreatedDate(limit)
+					: userRepository.scrollByCreatedDate(position.lastCreatedDate(), position.lastUserId(), limit);
+		};
+		if (users.size() <= pageSize) {
+			return new CursorPage<>(users, null, pageSize);
+		}
+		List<UserView> page = List.copyOf(users.subList(0, pageSize));
+		UserView last = page.getLast();
+		String lastValue = switch (field) {
+			case USER_ID -> String.valueOf(last.userId());
+			case LAST_NAME -> last.lastName();
+			case CREATED_DATE -> last.createdDate().toString();
+		};
+		return new CursorPage<>(page, new UserCursor(field, last.userId(), lastValue).encode(), pageSize);
+	}
+
+	private long countUsers() {
+		Long estimate = userRepository.estimateCount();
+		if (estimate == null || estimate < EXACT_COUNT_THRESHOLD) {
+			return userRepository.count();
+		}
+		return estimate;
 	}
 
 	/**
 	 * Get the user based on the userId passed as a parameter.
 	 * @param userId The userId of the user to be fetched.
-	 * @return User object containing the user details fetched from the database.
+	 * @return UserView object containing the user details fetched from the database.
 	 */
 	@Override
-	public User getUserById(Long userId) {
-		Optional<User> userOptional = userRepository.findById(userId);
+	@Transactional(readOnly = true)
+	public UserView getUserById(Long userId) {
+		Optional<UserView> userOptional = userRepository.findViewById(userId);
 		if (userOptional.isPresent()) {
 			return userOptional.get();
 		}
 		throw new UserNotFoundException(USER_NOT_FOUND + userId);
 	}
 
+	/**
+	 * Get the version of the user, which changes whenever the user is updated.
+	 * Cheaper than {@link #getUserById}, it only reads one column by primary key.
+	 * @param userId The userId of the user.
+	 * @return The current version of the user.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long getUserVersion(Long userId) {
+		return userRepository.findVersionById(userId)
+				.orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND + userId));
+	}
+
 	/**
 	 * Delete the user based on the userId passed as a parameter.
 	 * @param userId The userId of the user to be deleted.
@@ -92,6 +178,7 @@ public class UserServiceImpl implements UserService {
 		if (userOptional.isPresent()) {
 			User user = userOptional.get();
 			userRepository.delete(user);
+			userSecurityService.evictUser(user.getEmail());
 			return "User with name " + user.getFullName() + " deleted successfully";
 		}
 		throw new UserNotFoundException(USER_NOT_FOUND + userId);
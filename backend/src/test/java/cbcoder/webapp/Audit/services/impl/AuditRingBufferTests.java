@@ -0,0 +1,76 @@
+package cbcoder.webapp.Audit.services.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTests {
+
+	@Test
+	void rejectsWhenFullAndReusesDrainedSlots() {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(3);
+		assertEquals(4, buffer.capacity());
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(2, buffer.drainTo(drained, 2));
+		assertTrue(buffer.offer(4));
+		assertTrue(buffer.offer(5));
+		assertEquals(4, buffer.drainTo(drained, 10));
+
+		assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void concurrentProducersLoseNothing() throws InterruptedException {
+		int producers = 8;
+		int perProducer = 20_000;
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(256);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		for (int p = 0; p < producers; p++) {
+			int first = p * perProducer;
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = first; i < first + perProducer; i++) {
+					while (!buffer.offer(i)) {
+						Thread.onSpinWait();
+					}
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+
+		Set<Integer> seen = new HashSet<>();
+		List<Integer> batch = new ArrayList<>();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+			batch.clear();
+			buffer.drainTo(batch, 64);
+			batch.forEach(value -> assertTrue(seen.add(value), "duplicate " + value));
+		}
+
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(producers * perProducer, seen.size());
+		assertEquals(0, buffer.size());
+	}
+}
@@ -0,0 +1,146 @@
+package cbcoder.webapp.Audit.services.impl;
+
+import cbcoder.webapp.Audit.model.DTOs.AuditEventView;
+import cbcoder.webapp.Audit.model.enums.AuditAction;
+import cbcoder.webapp.Audit.model.enums.OverflowPolicy;
+import cbcoder.webapp.Audit.repositories.AuditEventRepository;
+import cbcoder.webapp.Audit.repositories.AuditJdbcRepository;
+import cbcoder.webapp.Users.model.DTOs.CursorPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.sql.init.mode=never"
+})
+@Import(AuditJdbcRepository.class)
+// The writer inserts from its own thread, the test must see committed rows.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditServiceImplTests {
+
+	@Autowired
+	private AuditJdbcRepository auditJdbcRepository;
+
+	@Autowired
+	private AuditEventRepository auditEventRepository;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void deleteEvents() {
+		auditEventRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void eventsAreWrittenInBatchesAndFlushedOnStop() {
+		AuditServiceImpl auditService = auditService(64, 10, OverflowPolicy.CALLER_RUNS);
+		auditService.start();
+		for (int i = 0; i < 25; i++) {
+			auditService.record(AuditAction.LOGIN, "user" + i + "@webapp.com", "user" + i + "@webapp.com", null);
+		}
+		auditService.stop();
+
+		assertEquals(25, auditEventRepository.count());
+		assertEquals(25, meterRegistry.get("webapp.audit.events").tag("result", "written").counter().count());
+	}
+
+	@Test
+	void noEventIsLostWhenStoppingUnderLoad() throws Exception {
+		AuditServiceImpl auditService = auditService(16, 4, OverflowPolicy.BLOCK);
+		auditService.start();
+		int threads = 4;
+		int perThread = 200;
+		CountDownLatch started = new CountDownLatch(threads);
+		ExecutorService producers = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; t++) {
+			producers.submit(() -> {
+				started.countDown();
+				for (int i = 0; i < perThread; i++) {
+					auditService.record(AuditAction.LOGIN, "a@webapp.com", "a@webapp.com", null);
+				}
+			});
+		}
+		started.await();
+		auditService.stop();
+		producers.shutdown();
+		assertTrue(producers.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(threads * perThread, auditEventRepository.count());
+		assertEquals(threads * perThread, meterRegistry.get("webapp.audit.events").tag("result", "written").counter().count());
+	}
+
+	@Test
+	void dropPolicyCountsWhatDoesNotFit() {
+		// The writer only wakes up for a full batch or after an hour: the buffer just fills up.
+		AuditServiceImpl auditService = new AuditServiceImpl(auditJdbcRepository, auditEventRepository, 4, 100,
+				Duration.ofHours(1), OverflowPolicy.DROP, meterRegistry);
+		auditService.start();
+		for (int i = 0; i < 10; i++) {
+			auditService.record(AuditAction.LOGIN, "a@webapp.com", "a@webapp.com", null);
+		}
+		auditService.stop();
+
+		assertEquals(4, auditEventRepository.count());
+		assertEquals(6, meterRegistry.get("webapp.audit.events").tag("result", "dropped").counter().count());
+	}
+
+	@Test
+	void scrollsATimeRangeNewestFirst() {
+		AuditServiceImpl auditService = auditService(64, 10, OverflowPolicy.CALLER_RUNS);
+		Instant from = Instant.now().minus(1, ChronoUnit.MINUTES);
+		for (int i = 0; i < 23; i++) {
+			auditService.record(AuditAction.ROLE_GRANTED, "admin@webapp.com", "user" + i + "@webapp.com", "ROLE_SALES");
+		}
+		Instant to = Instant.now().plus(1, ChronoUnit.MINUTES);
+
+		List<AuditEventView> visited = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPage<AuditEventView> page = auditService.findEvents(from, to, cursor, 5);
+			assertTrue(page.content().size() <= 5);
+			visited.addAll(page.content());
+			cursor = page.nextCursor();
+		} while (cursor != null);
+
+		assertEquals(23, visited.size());
+		Set<Long> ids = new HashSet<>();
+		for (int i = 0; i < visited.size(); i++) {
+			assertTrue(ids.add(visited.get(i).id()));
+			if (i > 0) {
+				AuditEventView previous = visited.get(i - 1);
+				AuditEventView current = visited.get(i);
+				assertTrue(previous.occurredAt().isAfter(current.occurredAt())
+						|| previous.occurredAt().equals(current.occurredAt()) && previous.id() > current.id());
+			}
+		}
+		assertEquals("admin@webapp.com", visited.getFirst().actor());
+		assertTrue(auditService.findEvents(to, to.plusSeconds(60), null, 5).content().isEmpty());
+	}
+
+	private AuditServiceImpl auditService(int capacity, int batchSize, OverflowPolicy overflowPolicy) {
+		return new AuditServiceImpl(auditJdbcRepository, auditEventRepository, capacity, batchSize,
+				Duration.ofMillis(20), overflowPolicy, meterRegistry);
+	}
+}
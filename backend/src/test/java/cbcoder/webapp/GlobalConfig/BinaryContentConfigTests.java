@@ -0,0 +1,125 @@
+package cbcoder.webapp.GlobalConfig;
+
+import cbcoder.webapp.Users.model.DTOs.UserView;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BinaryContentConfigTests {
+
+	private static final TypeReference<List<UserView>> USER_VIEWS = new TypeReference<>() {
+	};
+
+	private final BinaryContentConfig config = new BinaryContentConfig();
+
+	@Test
+	void binaryMappersRoundTripAUserPage() throws IOException {
+		List<UserView> users = users(20);
+		for (ObjectMapper mapper : binaryMappers().values()) {
+			byte[] body = mapper.writeValueAsBytes(users);
+			assertEquals(users, mapper.readValue(body, USER_VIEWS));
+		}
+	}
+
+	@Test
+	void binaryBodiesAreSmallerThanJson() throws IOException {
+		List<UserView> users = users(100);
+		int json = jsonMapper().writeValueAsBytes(users).length;
+		for (ObjectMapper mapper : binaryMappers().values()) {
+			assertTrue(mapper.writeValueAsBytes(users).length < json);
+		}
+	}
+
+	@Test
+	void negotiatesTheFormatFromTheAcceptHeader() throws Exception {
+		MockMvc mockMvc = mockMvc();
+		List<UserView> users = users(3);
+		Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+		mappers.put("application/cbor", binaryMappers().get("CBOR"));
+		mappers.put("application/x-jackson-smile", binaryMappers().get("Smile"));
+		mappers.put(MediaType.APPLICATION_JSON_VALUE, jsonMapper());
+
+		for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+			byte[] body = mockMvc.perform(get("/users").accept(entry.getKey()))
+					.andExpect(status().isOk())
+					.andExpect(content().contentTypeCompatibleWith(entry.getKey()))
+					.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+					.andReturn().getResponse().getContentAsByteArray();
+			assertEquals(users, entry.getValue().readValue(body, USER_VIEWS));
+		}
+		mockMvc.perform(get("/users").accept(MediaType.ALL))
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	private MockMvc mockMvc() {
+		InterceptorList interceptors = new InterceptorList();
+		config.addInterceptors(interceptors);
+		return MockMvcBuilders.standaloneSetup(new UsersController())
+				.setMessageConverters(new MappingJackson2HttpMessageConverter(jsonMapper()),
+						config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()),
+						config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()))
+				.addInterceptors(interceptors.handlerInterceptors())
+				.build();
+	}
+
+	@RestController
+	static class UsersController {
+		@GetMapping("/users")
+		List<UserView> users() {
+			return BinaryContentConfigTests.users(3);
+		}
+	}
+
+	static class InterceptorList extends InterceptorRegistry {
+		HandlerInterceptor[] handlerInterceptors() {
+			return getInterceptors().stream().map(HandlerInterceptor.class::cast).toArray(HandlerInterceptor[]::new);
+		}
+	}
+
+	private Map<String, ObjectMapper> binaryMappers() {
+		Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+		mappers.put("CBOR", config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper());
+		mappers.put("Smile", config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper());
+		return mappers;
+	}
+
+	private static ObjectMapper jsonMapper() {
+		return new Jackson2ObjectMapperBuilder().build();
+	}
+
+	private static List<UserView> users(int count) {
+		LocalDateTime created = LocalDateTime.of(2024, 1, 1, 8, 0);
+		List<UserView> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			users.add(new UserView((long) i + 1, "First" + i, "Last" + i, "user" + i + "@webapp.com", true,
+					created.plusMinutes(i), created.plusDays(1).plusMinutes(i), i % 4,
+					i % 3 == 0 ? List.of(RoleEnum.ROLE_ADMIN, RoleEnum.ROLE_SALES) : List.of(RoleEnum.ROLE_SALES)));
+		}
+		return users;
+	}
+}
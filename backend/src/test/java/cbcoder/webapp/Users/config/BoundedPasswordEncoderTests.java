@@ -0,0 +1,119 @@
+package cbcoder.webapp.Users.config;
+
+import cbcoder.webapp.Exceptions.ServiceBusyException;
+import cbcoder.webapp.Exceptions.handler.ExceptionsHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BoundedPasswordEncoderTests {
+
+	@Test
+	void delegatesEncodeAndMatches() {
+		try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(null, null), 1, 1, Duration.ofSeconds(1), new SimpleMeterRegistry())) {
+			assertEquals("drowssap", encoder.encode("password"));
+			assertTrue(encoder.matches("password", "drowssap"));
+		}
+	}
+
+	@Test
+	void rejectsWorkWhenPoolAndQueueAreFull() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService callers = Executors.newCachedThreadPool();
+		try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(started, release), 1, 1, Duration.ofSeconds(5), new SimpleMeterRegistry())) {
+			CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("running"), callers);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			// The only thread is busy: one of the next two hashes takes the queue slot and waits, the other is rejected at once.
+			CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> encoder.encode("first"), callers);
+			CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> encoder.encode("second"), callers);
+			CompletableFuture.anyOf(first, second).exceptionally(e -> null).get(5, TimeUnit.SECONDS);
+			CompletableFuture<String> rejected = first.isDone() ? first : second;
+			CompletableFuture<String> queued = rejected == first ? second : first;
+
+			ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+			assertInstanceOf(ServiceBusyException.class, e.getCause());
+
+			release.countDown();
+			assertEquals("gninnur", running.get(5, TimeUnit.SECONDS));
+			assertTrue(queued.get(5, TimeUnit.SECONDS).matches("tsrif|dnoces"));
+		} finally {
+			release.countDown();
+			callers.shutdownNow();
+		}
+	}
+
+	@Test
+	void timesOutSlowWork() {
+		CountDownLatch release = new CountDownLatch(1);
+		try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(null, release), 1, 1, Duration.ofMillis(50), new SimpleMeterRegistry())) {
+			assertThrows(ServiceBusyException.class, () -> encoder.encode("slow"));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void busyEncoderIsAnsweredWith503() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(null, release), 1, 1, Duration.ofMillis(50), new SimpleMeterRegistry())) {
+			MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new HashingController(encoder))
+					.setControllerAdvice(new ExceptionsHandler(new SimpleMeterRegistry()))
+					.build();
+			mockMvc.perform(post("/hash")).andExpect(status().isServiceUnavailable());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@RestController
+	static class HashingController {
+		private final PasswordEncoder encoder;
+
+		HashingController(PasswordEncoder encoder) {
+			this.encoder = encoder;
+		}
+
+		@PostMapping("/hash")
+		public String hash() {
+			return encoder.encode("password");
+		}
+	}
+
+	private record ReversingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+		@Override
+		public String encode(CharSequence rawPassword) {
+			if (started != null) {
+				started.countDown();
+			}
+			await();
+			return new StringBuilder(rawPassword).reverse().toString();
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return new StringBuilder(rawPassword).reverse().toString().equals(encodedPassword);
+		}
+
+		private void await() {
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+}
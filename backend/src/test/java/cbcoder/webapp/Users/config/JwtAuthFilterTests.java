@@ -0,0 +1,122 @@
+package cbcoder.webapp.Users.config;
+
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.services.TokenRevocationService;
+import cbcoder.webapp.Users.services.TokenVersionService;
+import cbcoder.webapp.Users.services.UserSecurityService;
+import cbcoder.webapp.Users.services.impl.JwtServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtAuthFilterTests {
+
+	private static final String SECRET = "ee60ad300ec74f5eb736bd1e08845012d748a7737a2d5541b9be3842329d2745";
+
+	private final User user = new User(1L, "John", "Doe", "john@webapp.com", "password", true, List.of(RoleEnum.ROLE_SALES));
+	private final Map<String, Long> versions = new HashMap<>(Map.of("john@webapp.com", 0L));
+
+	private final TokenVersionService tokenVersionService = new TokenVersionService() {
+		@Override
+		public boolean isCurrent(String email, long tokenVersion) {
+			return versions.get(email) == tokenVersion;
+		}
+
+		@Override
+		public void evict(String email) {
+		}
+	};
+
+	private final TokenRevocationService tokenRevocationService = new TokenRevocationService() {
+		@Override
+		public boolean isRevoked(String jti) {
+			return false;
+		}
+
+		@Override
+		public boolean revoke(String jti, Instant expiresAt) {
+			return true;
+		}
+
+		@Override
+		public void pruneExpired() {
+		}
+	};
+
+	private final UserSecurityService userSecurityService = new UserSecurityService() {
+		@Override
+		public UserDetailsService userDetailsService() {
+			return email -> user;
+		}
+
+		@Override
+		public void evictUser(String email) {
+		}
+	};
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private JwtAuthFilter filter(JwtServiceImpl jwtService, boolean cacheEnabled) {
+		return new JwtAuthFilter(jwtService, userSecurityService, new VerifiedTokenCache(cacheEnabled, 100, new SimpleMeterRegistry()),
+				tokenVersionService, tokenRevocationService);
+	}
+
+	private static JwtServiceImpl jwtService(boolean selfContained) {
+		return new JwtServiceImpl(SECRET, 60_000, 120_000, selfContained, new SimpleMeterRegistry());
+	}
+
+	private boolean authenticates(JwtAuthFilter filter, String jwt) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/all");
+		request.addHeader("Authorization", "Bearer " + jwt);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication() != null;
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void accessTokenAuthenticates(boolean selfContained) throws Exception {
+		JwtServiceImpl jwtService = jwtService(selfContained);
+
+		assertTrue(authenticates(filter(jwtService, false), jwtService.generateJwtToken(user)));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void refreshTokenIsNotABearerToken(boolean selfContained) throws Exception {
+		JwtServiceImpl jwtService = jwtService(selfContained);
+
+		assertFalse(authenticates(filter(jwtService, false), jwtService.generateRefreshJwtToken(new HashMap<>(), user)));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void accessTokenIsRejectedOnceTheTokenVersionChanged(boolean cacheEnabled) throws Exception {
+		JwtServiceImpl jwtService = jwtService(false);
+		JwtAuthFilter filter = filter(jwtService, cacheEnabled);
+		String jwt = jwtService.generateJwtToken(user);
+		assertTrue(authenticates(filter, jwt));
+
+		versions.put("john@webapp.com", 1L);
+
+		assertFalse(authenticates(filter, jwt), "a bumped version revokes the outstanding access tokens");
+	}
+}
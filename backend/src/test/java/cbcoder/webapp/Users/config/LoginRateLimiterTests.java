@@ -0,0 +1,100 @@
+package cbcoder.webapp.Users.config;
+
+import cbcoder.webapp.Exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTests {
+
+	private final AtomicLong clock = new AtomicLong(1_000);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	// 10 per IP, 3 per email, both refilling one token per second.
+	private final LoginRateLimiter limiter = new LoginRateLimiter(true, 1024, 10, 60, 3, 60, 2, meterRegistry, clock::get);
+
+	@Test
+	void allowsTheBurstThenRejectsUntilRefilled() {
+		for (int i = 0; i < 3; i++) {
+			limiter.acquire("10.0.0.1", "john@webapp.com");
+		}
+		TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+				() -> limiter.acquire("10.0.0.1", "John@WebApp.com "));
+		assertEquals(1, ex.getRetryAfterSeconds());
+
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		limiter.acquire("10.0.0.1", "john@webapp.com");
+
+		assertEquals(4, count("allowed"));
+		assertEquals(1, count("rejected_email"));
+	}
+
+	@Test
+	void limitsAnIpTryingManyEmails() {
+		for (int i = 0; i < 10; i++) {
+			limiter.acquire("10.0.0.2", "user" + i + "@webapp.com");
+		}
+		assertThrows(TooManyRequestsException.class, () -> limiter.acquire("10.0.0.2", "other@webapp.com"));
+		limiter.acquire("10.0.0.3", "other@webapp.com");
+
+		assertEquals(1, count("rejected_ip"));
+	}
+
+	@Test
+	void failuresAreChargedExtra() {
+		limiter.acquire("10.0.0.4", "jane@webapp.com");
+		limiter.recordFailure("10.0.0.4", "jane@webapp.com");
+
+		assertThrows(TooManyRequestsException.class, () -> limiter.acquire("10.0.0.4", "jane@webapp.com"));
+	}
+
+	@Test
+	void disabledLimiterAllowsEverything() {
+		LoginRateLimiter disabled = new LoginRateLimiter(false, 1024, 1, 1, 1, 1, 2, meterRegistry, clock::get);
+		for (int i = 0; i < 100; i++) {
+			disabled.acquire("10.0.0.5", "jane@webapp.com");
+		}
+	}
+
+	@Test
+	void concurrentAttemptsNeverExceedTheCapacity() throws InterruptedException {
+		int threads = 16;
+		AtomicInteger allowed = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; t++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < 100; i++) {
+						try {
+							limiter.acquire("10.0.0.6", null);
+							allowed.incrementAndGet();
+						} catch (TooManyRequestsException ignored) {
+							// expected once the bucket is empty
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertEquals(10, allowed.get());
+	}
+
+	private double count(String result) {
+		return meterRegistry.get("webapp.auth.attempts").tag("result", result).counter().count();
+	}
+}
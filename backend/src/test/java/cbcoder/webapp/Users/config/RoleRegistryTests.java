@@ -0,0 +1,59 @@
+package cbcoder.webapp.Users.config;
+
+import cbcoder.webapp.Users.model.Role;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.repositories.RoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoleRegistryTests {
+
+	@Test
+	void resolvesEverySeededRoleByNameAndId() {
+		RoleRegistry registry = new RoleRegistry(repositoryWith(seededRoles()));
+
+		for (RoleEnum roleName : RoleEnum.values()) {
+			assertEquals(roleName, registry.get(roleName).getRoleName());
+			assertSame(registry.get(roleName), registry.findByRoleId(roleName.getId()).orElseThrow());
+		}
+		assertTrue(registry.findByRoleId(0L).isEmpty());
+		assertTrue(registry.findByRoleId(99L).isEmpty());
+	}
+
+	@Test
+	void failsWhenARoleIsMissing() {
+		List<Role> roles = seededRoles();
+		roles.removeLast();
+
+		assertThrows(IllegalStateException.class, () -> new RoleRegistry(repositoryWith(roles)));
+	}
+
+	@Test
+	void failsWhenAnIdDoesNotMatch() {
+		List<Role> roles = seededRoles();
+		roles.getFirst().setRoleId(42L);
+
+		assertThrows(IllegalStateException.class, () -> new RoleRegistry(repositoryWith(roles)));
+	}
+
+	private static List<Role> seededRoles() {
+		return new ArrayList<>(Arrays.stream(RoleEnum.values()).map(roleName -> {
+			Role role = new Role(roleName);
+			role.setRoleId(roleName.getId());
+			return role;
+		}).toList());
+	}
+
+	private static RoleRepository repositoryWith(List<Role> roles) {
+		RoleRepository roleRepository = mock(RoleRepository.class);
+		when(roleRepository.findAll()).thenReturn(roles);
+		return roleRepository;
+	}
+}
@@ -0,0 +1,31 @@
+package cbcoder.webapp.Users.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityConfigTests {
+
+	private final AuthorizationManager<RequestAuthorizationContext> scrapeAccess =
+			SecurityConfig.fromAddresses(List.of("127.0.0.1", " ::1", "10.1.0.0/16"));
+
+	@Test
+	void prometheusIsOnlyOpenToTheAllowedAddresses() {
+		assertTrue(isGranted("127.0.0.1"));
+		assertTrue(isGranted("0:0:0:0:0:0:0:1"));
+		assertTrue(isGranted("10.1.42.7"));
+		assertFalse(isGranted("10.2.0.1"));
+		assertFalse(isGranted("203.0.113.9"));
+	}
+
+	private boolean isGranted(String remoteAddress) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/actuator/prometheus");
+		request.setRemoteAddr(remoteAddress);
+		return scrapeAccess.check(() -> null, new RequestAuthorizationContext(request)).isGranted();
+	}
+}
@@ -0,0 +1,94 @@
+package cbcoder.webapp.Users.controller;
+
+import cbcoder.webapp.Exceptions.handler.ExceptionsHandler;
+import cbcoder.webapp.Users.config.LoginRateLimiter;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.services.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTests {
+
+	private final AuthService authService = mock(AuthService.class);
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		LoginRateLimiter rateLimiter = new LoginRateLimiter(true, 1024, 20, 30, 5, 5, 2, meterRegistry);
+		mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(authService, rateLimiter))
+				.setControllerAdvice(new ExceptionsHandler(meterRegistry))
+				.build();
+	}
+
+	@ParameterizedTest
+	@CsvSource(delimiter = ';', value = {
+			"firstName; J; Doe; john@webapp.com; password1; [{\"roleId\":3}]",
+			"firstName; '  '; Doe; john@webapp.com; password1; [{\"roleId\":3}]",
+			"lastName; John; D; john@webapp.com; password1; [{\"roleId\":3}]",
+			"lastName; John; Doe-Doe-Doe-Doe-Doe-Doe-Doe-Doe-Doe-Doe-Doe-Doe-Doe-Doe; john@webapp.com; password1; [{\"roleId\":3}]",
+			"email; John; Doe; not-an-email; password1; [{\"roleId\":3}]",
+			"email; John; Doe; ''; password1; [{\"roleId\":3}]",
+			"password; John; Doe; john@webapp.com; short; [{\"roleId\":3}]",
+			"roles; John; Doe; john@webapp.com; password1; []",
+	})
+	void registerRejectsAnInvalidFieldBeforeTheInsert(String field, String firstName, String lastName, String email,
+	                                                  String password, String roles) throws Exception {
+		String body = """
+				{"firstName":"%s","lastName":"%s","email":"%s","password":"%s","roles":%s}"""
+				.formatted(firstName, lastName, email, password, roles);
+
+		mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$." + field).exists());
+		verify(authService, never()).register(any());
+	}
+
+	@Test
+	void registerIsRateLimitedByEmailAcrossIps() throws Exception {
+		when(authService.register(any())).thenReturn(
+				new User(1L, "John", "Doe", "john@webapp.com", "hash", true, List.of(RoleEnum.ROLE_SALES)));
+
+		// 5 attempts per email, each from its own IP so the IP buckets never run out.
+		for (int i = 0; i < 5; i++) {
+			register("10.0.0." + i, "john@webapp.com").andExpect(status().isCreated());
+		}
+		register("10.0.1.1", "John@WebApp.com")
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists("Retry-After"));
+		register("10.0.1.1", "jane@webapp.com").andExpect(status().isCreated());
+		verify(authService, times(6)).register(any());
+	}
+
+	private ResultActions register(String clientIp, String email) throws Exception {
+		String body = """
+				{"firstName":"John","lastName":"Doe","email":"%s","password":"password1","roles":[{"roleId":3}]}"""
+				.formatted(email);
+		return mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(body)
+				.with(request -> {
+					request.setRemoteAddr(clientIp);
+					return request;
+				}));
+	}
+}
@@ -0,0 +1,90 @@
+package cbcoder.webapp.Users.mappers;
+
+import cbcoder.webapp.Users.model.DTOs.SignUpRequest;
+import cbcoder.webapp.Users.model.DTOs.UserDTO;
+import cbcoder.webapp.Users.model.DTOs.UserView;
+import cbcoder.webapp.Users.model.Role;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserMapperTests {
+
+	@Test
+	void roundTripKeepsEveryUserDtoField() throws Exception {
+		UserDTO source = fullDto();
+
+		UserDTO copy = UserMapper.toDto(UserMapper.toUser(source));
+
+		for (Field field : UserDTO.class.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			field.setAccessible(true);
+			assertNotNull(field.get(source), "test data does not set " + field.getName());
+			assertEquals(field.get(source), field.get(copy), "field not mapped: " + field.getName());
+		}
+	}
+
+	@Test
+	void viewMapsEveryComponentAndNoPassword() throws Exception {
+		User user = UserMapper.toUser(fullDto());
+
+		UserView view = UserMapper.toView(user);
+
+		for (RecordComponent component : UserView.class.getRecordComponents()) {
+			assertNotNull(component.getAccessor().invoke(view), "component not mapped: " + component.getName());
+		}
+		assertEquals(List.of(RoleEnum.ROLE_ADMIN, RoleEnum.ROLE_SALES), view.roles());
+		assertFalse(view.toString().contains("hash"));
+	}
+
+	@Test
+	void signUpUsesTheResolvedRoleOnly() {
+		Role sales = role(RoleEnum.ROLE_SALES);
+		SignUpRequest request = new SignUpRequest("John", "Doe", " John@WebApp.com", "password",
+				List.of(role(RoleEnum.ROLE_SUPERADMIN)));
+
+		User user = UserMapper.toUser(UserMapper.toDto(request, "hash", sales));
+
+		assertEquals("john@webapp.com", user.getEmail());
+		assertEquals("hash", user.getPassword());
+		assertTrue(user.getEnabled());
+		assertEquals(Set.of(RoleEnum.ROLE_SALES), user.getRoles());
+	}
+
+	@Test
+	void capitalizesMixedCaseAndMultiWordNames() {
+		UserDTO dto = new UserDTO("jOHN", "mc DONALD smith", "john@webapp.com", "hash", true,
+				List.of(role(RoleEnum.ROLE_SALES)));
+
+		User user = UserMapper.toUser(dto);
+
+		assertEquals("John", user.getFirstName());
+		assertEquals("Mc Donald Smith", user.getLastName());
+	}
+
+	private static UserDTO fullDto() {
+		UserDTO userDTO = new UserDTO("John", "Doe", "john@webapp.com", "hash", true,
+				List.of(role(RoleEnum.ROLE_ADMIN), role(RoleEnum.ROLE_SALES)));
+		userDTO.setUserId(7L);
+		userDTO.setCreatedDate(LocalDateTime.of(2024, 1, 1, 8, 0));
+		userDTO.setUpdatedDate(LocalDateTime.of(2024, 2, 1, 8, 0));
+		return userDTO;
+	}
+
+	private static Role role(RoleEnum roleName) {
+		Role role = new Role(roleName);
+		role.setRoleId(roleName.getId());
+		return role;
+	}
+}
@@ -0,0 +1,43 @@
+package cbcoder.webapp.Users.model;
+
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleMaskTests {
+
+	@Test
+	void authoritiesAreSharedBetweenUsersWithTheSameRoles() {
+		User first = new User(1L, "John", "Doe", "john@webapp.com", "password", true, List.of(RoleEnum.ROLE_ADMIN));
+		User second = new User(2L, "Jane", "Doe", "jane@webapp.com", "password", true, List.of(RoleEnum.ROLE_ADMIN));
+
+		assertSame(first.getAuthorities(), second.getAuthorities());
+		assertSame(first.getAuthorities().iterator().next(), second.getAuthorities().iterator().next());
+		assertThrows(UnsupportedOperationException.class, () -> RoleMask.authorities(first.getRoleMask()).clear());
+	}
+
+	@Test
+	void addAndRemoveRolesFlipSingleBits() {
+		User user = new User(1L, "John", "Doe", "john@webapp.com", "password", true, List.of(RoleEnum.ROLE_SALES));
+
+		user.addRole(RoleEnum.ROLE_ADMIN);
+		assertTrue(user.hasRole(RoleEnum.ROLE_ADMIN));
+		assertEquals(Set.of(RoleEnum.ROLE_SALES, RoleEnum.ROLE_ADMIN), user.getRoles());
+
+		user.removeRole(RoleEnum.ROLE_ADMIN);
+		assertFalse(user.hasRole(RoleEnum.ROLE_ADMIN));
+		assertEquals(RoleEnum.ROLE_SALES.bit(), user.getRoleMask());
+	}
+
+	@Test
+	void everyMaskRoundTrips() {
+		for (int mask = 0; mask < 1 << RoleEnum.values().length; mask++) {
+			assertEquals(mask, RoleMask.of(RoleMask.roles(mask)));
+			assertEquals(RoleMask.roles(mask).size(), RoleMask.authorities(mask).size());
+		}
+	}
+}
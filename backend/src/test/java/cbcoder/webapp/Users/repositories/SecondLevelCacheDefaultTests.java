@@ -0,0 +1,32 @@
+package cbcoder.webapp.Users.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Without the l2cache profile there must be no second-level cache, not even regions created on the fly.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.sql.init.mode=never"
+})
+class SecondLevelCacheDefaultTests {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void defaultContextHasNoCacheRegions() {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+		assertFalse(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled());
+		assertTrue(sessionFactory.getCache().getCacheRegionNames().isEmpty());
+	}
+}
@@ -0,0 +1,96 @@
+package cbcoder.webapp.Users.repositories;
+
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs with the l2cache profile: a repeated lookup by email or id must not reach the database.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.sql.init.mode=never"
+})
+@ActiveProfiles("l2cache")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryCacheTests {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Long userId;
+
+	@BeforeEach
+	void saveUser() {
+		userId = userRepository.save(new User(null, "John", "Doe", "john@webapp.com", "password", true,
+				List.of(RoleEnum.ROLE_SALES))).getUserId();
+	}
+
+	@AfterEach
+	void deleteUsers() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void repeatedLookupByEmailIsServedFromTheCache() {
+		Statistics statistics = statistics();
+		userRepository.findByEmail("john@webapp.com").orElseThrow();
+
+		statistics.clear();
+		User user = userRepository.findByEmail("john@webapp.com").orElseThrow();
+
+		assertEquals(userId, user.getUserId());
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertTrue(statistics.getNaturalIdCacheHitCount() > 0);
+	}
+
+	@Test
+	void lookupByEmailIgnoresCase() {
+		assertEquals(userId, userRepository.findByEmail(" John@WebApp.com").orElseThrow().getUserId());
+	}
+
+	@Test
+	void repeatedLookupByIdIsServedFromTheCache() {
+		Statistics statistics = statistics();
+		userRepository.findById(userId).orElseThrow();
+
+		statistics.clear();
+		userRepository.findById(userId).orElseThrow();
+
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getSecondLevelCacheHitCount());
+	}
+
+	@Test
+	void updatedEmailIsNotServedStale() {
+		User user = userRepository.findByEmail("john@webapp.com").orElseThrow();
+		user.setEmail("johnny@webapp.com");
+		userRepository.save(user);
+
+		assertTrue(userRepository.findByEmail("john@webapp.com").isEmpty());
+		assertEquals(userId, userRepository.findByEmail("johnny@webapp.com").orElseThrow().getUserId());
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+}
@@ -0,0 +1,80 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Audit.services.AuditService;
+import cbcoder.webapp.Exceptions.NotAuthorizedAccessException;
+import cbcoder.webapp.Users.config.RoleRegistry;
+import cbcoder.webapp.Users.config.VerifiedTokenCache;
+import cbcoder.webapp.Users.model.DTOs.JwtAuthResponse;
+import cbcoder.webapp.Users.model.DTOs.RefreshTokenRequest;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
+import cbcoder.webapp.Users.repositories.UserRepository;
+import cbcoder.webapp.Users.services.TokenRevocationService;
+import cbcoder.webapp.Users.services.UserActivityService;
+import cbcoder.webapp.Users.services.UserSecurityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthServiceImplTests {
+
+	private static final String SECRET = "ee60ad300ec74f5eb736bd1e08845012d748a7737a2d5541b9be3842329d2745";
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+	private final JwtServiceImpl jwtService = new JwtServiceImpl(SECRET, 60_000, 120_000, false, new SimpleMeterRegistry());
+	private final AuthServiceImpl authService = new AuthServiceImpl(userRepository, mock(UserJdbcRepository.class),
+			mock(PasswordEncoder.class), jwtService, mock(AuthenticationManager.class), mock(RoleRegistry.class),
+			tokenRevocationService, mock(UserSecurityService.class), mock(VerifiedTokenCache.class),
+			mock(AuditService.class), mock(UserActivityService.class));
+
+	private final User user = new User(1L, "John", "Doe", "john@webapp.com", "password", true, List.of());
+
+	@Test
+	void refreshIssuesANewPair() {
+		when(userRepository.findByEmail("john@webapp.com")).thenReturn(Optional.of(user));
+		when(tokenRevocationService.revoke(anyString(), any())).thenReturn(true);
+
+		JwtAuthResponse response = authService.refreshToken(new RefreshTokenRequest(refreshToken()));
+
+		assertNotNull(response);
+	}
+
+	@Test
+	void refreshTokenOfADeletedUserIsUnauthorized() {
+		when(userRepository.findByEmail("john@webapp.com")).thenReturn(Optional.empty());
+
+		assertThrows(NotAuthorizedAccessException.class,
+				() -> authService.refreshToken(new RefreshTokenRequest(refreshToken())));
+	}
+
+	@Test
+	void invalidRefreshTokensAreUnauthorized() {
+		when(userRepository.findByEmail("john@webapp.com")).thenReturn(Optional.of(user));
+		String accessToken = jwtService.generateJwtToken(user);
+		String otherKey = new JwtServiceImpl(SECRET.replace('e', 'f'), 60_000, 120_000, false, new SimpleMeterRegistry())
+				.generateRefreshJwtToken(new HashMap<>(), user);
+
+		for (String token : new String[] {null, "not-a-jwt", accessToken, otherKey}) {
+			assertThrows(NotAuthorizedAccessException.class, () -> authService.refreshToken(new RefreshTokenRequest(token)));
+		}
+		String beforeLogout = refreshToken();
+		user.incrementTokenVersion();
+		assertThrows(NotAuthorizedAccessException.class, () -> authService.refreshToken(new RefreshTokenRequest(beforeLogout)));
+	}
+
+	private String refreshToken() {
+		return jwtService.generateRefreshJwtToken(new HashMap<>(), user);
+	}
+}
@@ -0,0 +1,44 @@
+package cbcoder.webapp.Users.services.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTests {
+
+	@Test
+	void neverReportsAnInsertedValueAsAbsent() {
+		BloomFilter filter = new BloomFilter(10_000, 0.001);
+		String[] values = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+
+		for (String value : values) {
+			filter.put(value);
+		}
+
+		for (String value : values) {
+			assertTrue(filter.mightContain(value));
+		}
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTheConfiguredRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.001);
+		IntStream.range(0, 10_000).forEach(i -> filter.put(UUID.randomUUID().toString()));
+
+		long falsePositives = IntStream.range(0, 100_000)
+				.filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+				.count();
+
+		assertTrue(falsePositives < 500, "false positives: " + falsePositives);
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		BloomFilter filter = new BloomFilter(100, 0.01);
+
+		assertFalse(filter.mightContain("3f2c1d7e-0000-0000-0000-000000000000"));
+	}
+}
@@ -0,0 +1,107 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.VerifiedToken;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceImplTests {
+
+	private static final String SECRET = "ee60ad300ec74f5eb736bd1e08845012d748a7737a2d5541b9be3842329d2745";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final JwtServiceImpl jwtService = new JwtServiceImpl(SECRET, 60_000, 120_000, false, meterRegistry);
+
+	private static User user(String email) {
+		return new User(1L, "John", "Doe", email, "password", true, List.of());
+	}
+
+	@Test
+	void verifyTokenReturnsClaimsOfGeneratedToken() {
+		User user = user("john@webapp.com");
+		VerifiedToken token = jwtService.verifyToken(jwtService.generateJwtToken(user));
+
+		assertEquals("john@webapp.com", token.subject());
+		assertNotNull(token.issuedAt());
+		assertTrue(token.expiration().isAfter(token.issuedAt()));
+		assertTrue(jwtService.isTokenValid(token, user));
+		assertFalse(jwtService.isTokenValid(token, user("jane@webapp.com")));
+	}
+
+	@Test
+	void verifyTokenRejectsTamperedSignature() {
+		String jwt = jwtService.generateJwtToken(user("john@webapp.com"));
+		JwtServiceImpl otherKey = new JwtServiceImpl(SECRET.replace('e', 'f'), 60_000, 120_000, false, new SimpleMeterRegistry());
+
+		assertThrows(JwtException.class, () -> otherKey.verifyToken(jwt));
+	}
+
+	@Test
+	void verifyTokenRejectsExpiredToken() {
+		JwtServiceImpl expired = new JwtServiceImpl(SECRET, -1_000, -1_000, false, new SimpleMeterRegistry());
+		String jwt = expired.generateJwtToken(user("john@webapp.com"));
+
+		assertThrows(ExpiredJwtException.class, () -> jwtService.verifyToken(jwt));
+	}
+
+	@Test
+	void verificationsAreTimedByOutcome() {
+		jwtService.verifyToken(jwtService.generateJwtToken(user("john@webapp.com")));
+		assertThrows(JwtException.class, () -> jwtService.verifyToken("not-a-jwt"));
+
+		assertEquals(1, meterRegistry.get("webapp.jwt.verification").tag("outcome", "valid").timer().count());
+		assertEquals(1, meterRegistry.get("webapp.jwt.verification").tag("outcome", "invalid").timer().count());
+	}
+
+	@Test
+	void plainTokenIsNotSelfContained() {
+		VerifiedToken token = jwtService.verifyToken(jwtService.generateJwtToken(user("john@webapp.com")));
+
+		assertFalse(token.isSelfContained());
+	}
+
+	@Test
+	void selfContainedTokenCarriesRolesAndVersion() {
+		JwtServiceImpl selfContained = new JwtServiceImpl(SECRET, 60_000, 120_000, true, new SimpleMeterRegistry());
+		User user = new User(1L, "John", "Doe", "john@webapp.com", "password", true,
+				List.of(RoleEnum.ROLE_SALES, RoleEnum.ROLE_ADMIN));
+		user.incrementTokenVersion();
+
+		VerifiedToken token = selfContained.verifyToken(selfContained.generateJwtToken(user));
+
+		assertTrue(token.isSelfContained());
+		assertEquals(List.of("ROLE_ADMIN", "ROLE_SALES"), token.roles());
+		assertEquals(1L, token.tokenVersion());
+	}
+
+	@Test
+	void tokensCarryTheirTypeAndTheTokenVersion() {
+		User user = user("john@webapp.com");
+		user.incrementTokenVersion();
+
+		VerifiedToken access = jwtService.verifyToken(jwtService.generateJwtToken(user));
+		VerifiedToken refresh = jwtService.verifyToken(jwtService.generateRefreshJwtToken(new HashMap<>(), user));
+
+		assertTrue(access.isAccessToken());
+		assertFalse(access.isRefreshToken());
+		assertTrue(refresh.isRefreshToken());
+		assertFalse(refresh.isAccessToken());
+		assertEquals(1L, access.tokenVersion());
+		assertEquals(1L, refresh.tokenVersion());
+	}
+
+	@Test
+	void refreshTokenKeepsSubject() {
+		String refresh = jwtService.generateRefreshJwtToken(new HashMap<>(), user("john@webapp.com"));
+
+		assertEquals("john@webapp.com", jwtService.verifyToken(refresh).subject());
+	}
+}
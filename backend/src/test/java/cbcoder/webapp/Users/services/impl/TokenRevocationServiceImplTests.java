@@ -0,0 +1,45 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceImplTests {
+
+	private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+	private final TokenRevocationServiceImpl revocationService = new TokenRevocationServiceImpl(repository, 1000, 0.001);
+
+	@Test
+	void revokedTokenIsFoundAndOthersSkipTheDatabase() {
+		when(repository.revoke(anyString(), any())).thenReturn(1);
+		when(repository.existsById("revoked")).thenReturn(true);
+
+		assertTrue(revocationService.revoke("revoked", Instant.now().plusSeconds(60)));
+
+		assertTrue(revocationService.isRevoked("revoked"));
+		assertFalse(revocationService.isRevoked("active"));
+		verify(repository, never()).existsById("active");
+	}
+
+	@Test
+	void revocationDuringARebuildSurvivesTheSwap() {
+		when(repository.revoke(anyString(), any())).thenReturn(1);
+		when(repository.existsById("during-rebuild")).thenReturn(true);
+		// The table is read before the revocation commits, the new filter only learns about it from revoke.
+		when(repository.findActiveJtis(any())).thenAnswer(invocation -> {
+			revocationService.revoke("during-rebuild", Instant.now().plusSeconds(60));
+			return List.of();
+		});
+
+		revocationService.pruneExpired();
+
+		assertTrue(revocationService.isRevoked("during-rebuild"));
+	}
+}
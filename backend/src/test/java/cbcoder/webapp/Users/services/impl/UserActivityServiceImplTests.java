@@ -0,0 +1,74 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.model.LoginActivity;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserActivityServiceImplTests {
+
+	private final List<List<LoginActivity>> statements = new ArrayList<>();
+	private boolean failing;
+
+	private final UserJdbcRepository repository = new UserJdbcRepository(null) {
+		@Override
+		public int addLogins(List<LoginActivity> activity) {
+			if (failing) {
+				throw new QueryTimeoutException("database down");
+			}
+			statements.add(List.copyOf(activity));
+			return activity.size();
+		}
+	};
+
+	@Test
+	void loginsOfTheSameUserAreCoalescedIntoOneRow() {
+		UserActivityServiceImpl activityService = new UserActivityServiceImpl(repository, 100);
+		for (int i = 0; i < 3; i++) {
+			activityService.recordLogin(1L);
+		}
+		activityService.recordLogin(2L);
+
+		assertEquals(2, activityService.flush());
+
+		assertEquals(1, statements.size());
+		Map<Long, LoginActivity> byUser = statements.getFirst().stream()
+				.collect(Collectors.toMap(LoginActivity::userId, Function.identity()));
+		assertEquals(3, byUser.get(1L).logins());
+		assertEquals(1, byUser.get(2L).logins());
+		assertEquals(0, activityService.flush(), "nothing is left to write");
+	}
+
+	@Test
+	void largeFlushesAreSplitIntoStatements() {
+		UserActivityServiceImpl activityService = new UserActivityServiceImpl(repository, 2);
+		for (long userId = 1; userId <= 5; userId++) {
+			activityService.recordLogin(userId);
+		}
+
+		assertEquals(5, activityService.flush());
+		assertEquals(List.of(2, 2, 1), statements.stream().map(List::size).toList());
+	}
+
+	@Test
+	void failedWritesAreKeptForTheNextFlush() {
+		UserActivityServiceImpl activityService = new UserActivityServiceImpl(repository, 100);
+		activityService.recordLogin(1L);
+		failing = true;
+		assertEquals(0, activityService.flush());
+
+		activityService.recordLogin(1L);
+		failing = false;
+		assertEquals(1, activityService.flush());
+
+		assertEquals(2, statements.getFirst().getFirst().logins());
+	}
+}
@@ -0,0 +1,81 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.ExportFormat;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
+import cbcoder.webapp.Users.repositories.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.sql.init.mode=never",
+		"webapp.users.export.fetch-size=2"
+})
+@Import({UserExportServiceImpl.class, UserJdbcRepository.class})
+class UserExportServiceImplTests {
+
+	@Autowired
+	private UserExportServiceImpl exportService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@BeforeEach
+	void seedUsers() {
+		userRepository.saveAll(List.of(
+				new User(null, "John", "Doe", "john@webapp.com", "secret-hash", true, List.of(RoleEnum.ROLE_SALES, RoleEnum.ROLE_ADMIN)),
+				new User(null, "Jane", "O'Neil, Jr", "jane@webapp.com", "secret-hash", false, List.of(RoleEnum.ROLE_WORKSHOP)),
+				new User(null, "Jim", "Beam", "jim@webapp.com", "secret-hash", true, List.of())));
+		entityManager.flush();
+	}
+
+	@Test
+	void exportsCsvWithHeaderAndQuoting() throws Exception {
+		String[] lines = export(ExportFormat.CSV).split("\n");
+
+		assertEquals(4, lines.length);
+		assertEquals("userId,firstName,lastName,email,enabled,createdDate,updatedDate,roles", lines[0]);
+		assertTrue(lines[1].endsWith(",ROLE_ADMIN|ROLE_SALES"), lines[1]);
+		assertTrue(lines[2].contains("\"O'Neil, Jr\""), lines[2]);
+		assertFalse(String.join("\n", lines).contains("secret-hash"));
+	}
+
+	@Test
+	void exportsOneJsonObjectPerLine() throws Exception {
+		String[] lines = export(ExportFormat.NDJSON).split("\n");
+		ObjectMapper objectMapper = new ObjectMapper();
+
+		assertEquals(3, lines.length);
+		JsonNode john = objectMapper.readTree(lines[0]);
+		assertEquals("john@webapp.com", john.get("email").asText());
+		assertEquals(2, john.get("roles").size());
+		assertFalse(objectMapper.readTree(lines[1]).get("enabled").asBoolean());
+		assertTrue(objectMapper.readTree(lines[2]).get("updatedDate").isNull());
+		assertNull(john.get("password"));
+	}
+
+	private String export(ExportFormat format) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		exportService.exportUsers(format, output);
+		return output.toString(StandardCharsets.UTF_8).trim();
+	}
+}
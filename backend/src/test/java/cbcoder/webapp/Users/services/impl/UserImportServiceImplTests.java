@@ -0,0 +1,117 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Users.model.DTOs.UserImportReport;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.ImportStatus;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.repositories.UserJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportServiceImplTests {
+
+	private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+	private final List<List<User>> batches = new ArrayList<>();
+	private UserImportServiceImpl importService;
+
+	@BeforeEach
+	void setUp() {
+		Set<String> emails = new HashSet<>();
+		UserJdbcRepository repository = new UserJdbcRepository(null) {
+			@Override
+			public int[] insertAll(List<User> users) {
+				batches.add(users);
+				return users.stream().mapToInt(user -> emails.add(user.getEmail()) ? 1 : 0).toArray();
+			}
+		};
+		importService = new UserImportServiceImpl(repository, passwordEncoder, new ObjectMapper(), 2, 2, new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void tearDown() {
+		importService.shutdown();
+	}
+
+	@Test
+	void importsCsvInBatchesAndReportsEveryRow() {
+		UserImportReport report = importService.importCsv(stream("""
+				firstName,lastName,email,password,role
+				John,Doe,john@webapp.com,password1,SALES
+				Jane,Doe,jane@webapp.com,short,SALES
+				Jim,Beam,jim@webapp.com,password3,ROLE_WORKSHOP
+				Jack,Daniels,john@webapp.com,password4,SALES
+				Joe,Black,joe@webapp.com,password5,PILOT
+				"""));
+
+		assertEquals(5, report.total());
+		assertEquals(2, report.created());
+		assertEquals(1, report.duplicates());
+		assertEquals(2, report.invalid());
+		assertTrue(report.completed());
+		assertEquals(List.of(ImportStatus.CREATED, ImportStatus.INVALID, ImportStatus.CREATED, ImportStatus.DUPLICATE, ImportStatus.INVALID),
+				report.rows().stream().map(row -> row.status()).toList());
+		assertEquals(List.of(1, 2, 3, 4, 5), report.rows().stream().map(row -> row.row()).toList());
+
+		assertEquals(2, batches.size(), "rows are written in batches of 2");
+		User jim = batches.get(0).get(1);
+		assertEquals(Set.of(RoleEnum.ROLE_WORKSHOP), jim.getRoles());
+		assertTrue(passwordEncoder.matches("password3", jim.getPassword()));
+	}
+
+	@Test
+	void capitalizesImportedNames() {
+		UserImportReport report = importService.importCsv(stream("""
+				firstName,lastName,email,password,role
+				jOHN,  mc   DONALD smith ,john@webapp.com,password1,SALES
+				"""));
+
+		assertEquals(1, report.created());
+		User john = batches.get(0).get(0);
+		assertEquals("John", john.getFirstName());
+		assertEquals("Mc Donald Smith", john.getLastName());
+	}
+
+	@Test
+	void importsNdjsonAndKeepsGoingAfterAnUnmappableRow() {
+		UserImportReport report = importService.importNdjson(stream("""
+				{"firstName":"John","lastName":"Doe","email":"john@webapp.com","password":"password1","role":"SALES"}
+				{"firstName":["not","a","name"]}
+				{"firstName":"Jane","lastName":"Doe","email":"jane@webapp.com","password":"password2","role":"ADMIN"}
+				"""));
+
+		assertEquals(2, report.created());
+		assertEquals(1, report.invalid());
+		assertEquals(ImportStatus.INVALID, report.rows().get(1).status());
+		assertTrue(report.completed());
+	}
+
+	@Test
+	void stopsAtMalformedInputAndKeepsEarlierRows() {
+		UserImportReport report = importService.importNdjson(stream("""
+				{"firstName":"John","lastName":"Doe","email":"john@webapp.com","password":"password1","role":"SALES"}
+				{"firstName":"Jane",
+				"""));
+
+		assertFalse(report.completed());
+		assertEquals(1, report.created());
+		assertEquals(ImportStatus.INVALID, report.rows().getLast().status());
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
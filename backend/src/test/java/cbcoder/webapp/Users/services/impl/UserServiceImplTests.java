@@ -0,0 +1,170 @@
+package cbcoder.webapp.Users.services.impl;
+
+import cbcoder.webapp.Exceptions.InvalidPageRequestException;
+import cbcoder.webapp.Users.model.DTOs.CursorPage;
+import cbcoder.webapp.Users.model.DTOs.UserView;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.UserCursor;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.model.enums.UserSortField;
+import cbcoder.webapp.Users.repositories.UserRepository;
+import cbcoder.webapp.Users.services.UserSecurityService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.sql.init.mode=never",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(UserServiceImpl.class)
+class UserServiceImplTests {
+
+	private static final int USERS = 57;
+
+	@Autowired
+	private UserServiceImpl userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockBean
+	private PasswordEncoder passwordEncoder;
+
+	@MockBean
+	private UserSecurityService userSecurityService;
+
+	@BeforeEach
+	void seedUsers() {
+		LocalDateTime created = LocalDateTime.of(2024, 1, 1, 8, 0);
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			List<RoleEnum> roles = i % 3 == 0 ? List.of(RoleEnum.ROLE_SALES, RoleEnum.ROLE_ADMIN) : List.of(RoleEnum.ROLE_SALES);
+			User user = new User(null, "First", "Name" + (i % 7), "user" + i + "@webapp.com", "password", true, roles);
+			// Duplicate sort values force the userId tie-breaker to be used.
+			user.setCreatedDate(created.plusMinutes(i % 5));
+			users.add(user);
+		}
+		userRepository.saveAll(users);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@ParameterizedTest
+	@EnumSource(UserSortField.class)
+	void scrollVisitsEveryUserOnceInOrder(UserSortField sortBy) {
+		Set<Long> seen = new HashSet<>();
+		List<UserView> visited = new ArrayList<>();
+		String cursor = "";
+		do {
+			CursorPage<UserView> page = userService.scrollUsers(cursor, 10, sortBy);
+			assertTrue(page.content().size() <= 10);
+			page.content().forEach(user -> assertTrue(seen.add(user.userId()), "duplicate user " + user.userId()));
+			visited.addAll(page.content());
+			cursor = page.nextCursor();
+		} while (cursor != null);
+
+		assertEquals(USERS, visited.size());
+		for (int i = 1; i < visited.size(); i++) {
+			assertTrue(compare(sortBy, visited.get(i - 1), visited.get(i)) < 0, "out of order at " + i);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {5, 25})
+	void scrollUsesOneStatementPerPageWhateverTheSize(int pageSize) {
+		Statistics statistics = statistics();
+		String cursor = "";
+		do {
+			statistics.clear();
+			CursorPage<UserView> page = userService.scrollUsers(cursor, pageSize, UserSortField.LAST_NAME);
+			assertEquals(1, statistics.getPrepareStatementCount(), "users and roles come from the same row");
+			assertEquals(0, statistics.getEntityLoadCount());
+			cursor = page.nextCursor();
+		} while (cursor != null);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {-1, 0, 501})
+	void scrollRejectsAPageSizeOutOfBounds(int pageSize) {
+		assertThrows(InvalidPageRequestException.class, () -> userService.scrollUsers(null, pageSize, UserSortField.USER_ID));
+	}
+
+	@Test
+	void scrollRejectsACursorWithATamperedDate() {
+		String cursor = new UserCursor(UserSortField.CREATED_DATE, 1L, "not-a-date").encode();
+		assertThrows(InvalidPageRequestException.class, () -> userService.scrollUsers(cursor, 10, UserSortField.USER_ID));
+	}
+
+	@Test
+	void getUserByIdReturnsViewWithRoles() {
+		User user = userRepository.findByEmail("user0@webapp.com").orElseThrow();
+		entityManager.clear();
+
+		UserView view = userService.getUserById(user.getUserId());
+
+		assertEquals("user0@webapp.com", view.email());
+		assertEquals(Set.of(RoleEnum.ROLE_SALES, RoleEnum.ROLE_ADMIN), Set.copyOf(view.roles()));
+	}
+
+	@Test
+	void getUserVersionReadsNoEntityAndChangesOnUpdate() {
+		User user = userRepository.findByEmail("user1@webapp.com").orElseThrow();
+		entityManager.clear();
+		Statistics statistics = statistics();
+		statistics.clear();
+
+		long version = userService.getUserVersion(user.getUserId());
+
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(version, userService.getUserById(user.getUserId()).version());
+
+		User managed = userRepository.findById(user.getUserId()).orElseThrow();
+		managed.setFirstName("changed");
+		entityManager.flush();
+		entityManager.clear();
+
+		assertEquals(version + 1, userService.getUserVersion(user.getUserId()));
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	private static int compare(UserSortField sortBy, UserView a, UserView b) {
+		int bySortField = switch (sortBy) {
+			case USER_ID -> 0;
+			case LAST_NAME -> a.lastName().compareTo(b.lastName());
+			case CREATED_DATE -> a.createdDate().compareTo(b.createdDate());
+		};
+		return bySortField != 0 ? bySortField : a.userId().compareTo(b.userId());
+	}
+}
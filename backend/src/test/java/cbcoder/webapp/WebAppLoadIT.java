@@ -0,0 +1,347 @@
+package cbcoder.webapp;
+
+import cbcoder.webapp.Users.model.DTOs.JwtAuthResponse;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import cbcoder.webapp.Users.model.enums.UserSortField;
+import cbcoder.webapp.Users.repositories.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of the API on a dev box, with no Docker and no network. The application is started on a random port
+ * against an in-memory H2 database in PostgreSQL mode, seeded with users of every role, and driven by clients on
+ * virtual threads, each logged in as its own user, with a mix of listings, reads, token refreshes, logins and updates.
+ * Throughput and the p50, p99 and p99.9 latency of every endpoint are printed and written as JSON to load.report,
+ * the test fails when the error rate, the throughput or the p99 of an endpoint misses its threshold.
+ * <p>
+ * Run with {@code mvn verify -Pload-test}. Every setting is a system property with a default below,
+ * e.g. {@code -Dload.clients=200 -Dload.duration=2m -Dload.max-p99.list=150ms}.
+ * H2 is not PostgreSQL: compare the numbers of two runs on the same machine, not with production.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.sql.init.data-locations=classpath:load-test/data.sql",
+		// Every client comes from 127.0.0.1.
+		"webapp.security.rate-limit.enabled=false"
+})
+class WebAppLoadIT {
+
+	private static final String PASSWORD = "LoadTest-Password1";
+	private static final int PAGE_SIZE = 20;
+	private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+	private static final Set<RoleEnum> USER_ENDPOINT_ROLES = EnumSet.of(RoleEnum.ROLE_SUPERADMIN, RoleEnum.ROLE_ADMIN, RoleEnum.ROLE_SALES);
+
+	/**
+	 * The endpoints under load, with the default p99 each must stay under.
+	 * Login and update hash a password with BCrypt, the others are bounded by the database.
+	 */
+	enum Endpoint {
+		LOGIN(Duration.ofSeconds(2)),
+		REFRESH(Duration.ofMillis(250)),
+		LIST(Duration.ofMillis(250)),
+		GET(Duration.ofMillis(100)),
+		UPDATE(Duration.ofSeconds(2));
+
+		private final Duration defaultMaxP99;
+
+		Endpoint(Duration defaultMaxP99) {
+			this.defaultMaxP99 = defaultMaxP99;
+		}
+
+		String key() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	private record Account(long userId, String email) {
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ServerProperties serverProperties;
+
+	@Autowired
+	private Environment environment;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BCryptPasswordEncoder bcryptPasswordEncoder;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+	// Failed requests by HTTP status, 0 when no response was received.
+	private final Map<Endpoint, Map<Integer, LongAdder>> errors = new EnumMap<>(Endpoint.class);
+	private volatile boolean running = true;
+	private volatile boolean recording;
+	private HttpClient httpClient;
+	private String baseUrl;
+	private long[] userIds;
+
+	@Test
+	void mixedTrafficMeetsTheThresholds() throws Exception {
+		int users = environment.getProperty("load.users", Integer.class, 5000);
+		int clients = environment.getProperty("load.clients", Integer.class, 64);
+		Duration warmup = environment.getProperty("load.warmup", Duration.class, Duration.ofSeconds(10));
+		Duration duration = environment.getProperty("load.duration", Duration.class, Duration.ofSeconds(30));
+
+		List<Account> accounts = seedUsers(users);
+		assertTrue(clients <= accounts.size(), "every client needs its own user, raise load.users");
+		for (Endpoint endpoint : Endpoint.values()) {
+			latencies.put(endpoint, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+			errors.put(endpoint, new ConcurrentHashMap<>());
+		}
+		baseUrl = "http://localhost:" + port + Objects.requireNonNullElse(serverProperties.getServlet().getContextPath(), "");
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			httpClient = HttpClient.newBuilder()
+					.executor(executor)
+					.version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(5))
+					.build();
+			for (int i = 0; i < clients; i++) {
+				Account account = accounts.get(i);
+				executor.submit(() -> drive(account, users));
+			}
+			Thread.sleep(warmup);
+			recording = true;
+			Thread.sleep(duration);
+			recording = false;
+			running = false;
+		}
+
+		report(duration);
+		assertThresholds(duration);
+	}
+
+	/**
+	 * Insert the users, every fifth one with the same role, all with the same password hashed once.
+	 * @return The users allowed on the /users endpoints, one per client.
+	 */
+	private List<Account> seedUsers(int count) {
+		String hash = bcryptPasswordEncoder.encode(PASSWORD);
+		RoleEnum[] roles = RoleEnum.values();
+		List<User> batch = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			batch.add(new User(null, "Load", "User" + i, "load" + i + "@webapp.com", hash, true, List.of(roles[i % roles.length])));
+			if (batch.size() == 1000 || i == count - 1) {
+				userRepository.saveAll(batch);
+				batch.clear();
+			}
+		}
+		List<Account> accounts = new ArrayList<>();
+		userIds = new long[count];
+		int i = 0;
+		for (User user : userRepository.findAll()) {
+			userIds[i++] = user.getUserId();
+			if (user.getRoles().stream().anyMatch(USER_ENDPOINT_ROLES::contains)) {
+				accounts.add(new Account(user.getUserId(), user.getEmail()));
+			}
+		}
+		return accounts;
+	}
+
+	/**
+	 * The loop of one client: list 45%, get 40%, refresh 8%, login 4%, and update 3% followed by a login,
+	 * since an update of the password revokes the refresh token.
+	 */
+	private void drive(Account account, int users) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		UserSortField[] sortFields = UserSortField.values();
+		JwtAuthResponse tokens = login(account);
+		while (running) {
+			if (tokens == null) {
+				tokens = login(account);
+				continue;
+			}
+			int dice = random.nextInt(100);
+			if (dice < 45) {
+				String query = "?pageNo=" + random.nextInt(users / PAGE_SIZE) + "&pageSize=" + PAGE_SIZE
+						+ "&sortBy=" + sortFields[random.nextInt(sortFields.length)].property();
+				call(Endpoint.LIST, authorized(tokens, "/users/all" + query).GET().build());
+			} else if (dice < 85) {
+				call(Endpoint.GET, authorized(tokens, "/users/" + userIds[random.nextInt(userIds.length)]).GET().build());
+			} else if (dice < 93) {
+				tokens = refresh(tokens);
+			} else if (dice < 97) {
+				tokens = login(account);
+			} else {
+				update(tokens, account);
+				tokens = login(account);
+			}
+		}
+	}
+
+	private JwtAuthResponse login(Account account) {
+		return tokens(call(Endpoint.LOGIN, post("/auth/login", Map.of("email", account.email(), "password", PASSWORD)).build()));
+	}
+
+	private JwtAuthResponse refresh(JwtAuthResponse tokens) {
+		return tokens(call(Endpoint.REFRESH, post("/auth/refresh", Map.of("refreshToken", tokens.refreshToken())).build()));
+	}
+
+	private void update(JwtAuthResponse tokens, Account account) {
+		Map<String, Object> body = Map.of("firstName", "Load", "lastName", "Updated", "email", account.email(), "password", PASSWORD);
+		call(Endpoint.UPDATE, authorized(tokens, "/users/" + account.userId())
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.PUT(HttpRequest.BodyPublishers.ofByteArray(json(body)))
+				.build());
+	}
+
+	private HttpRequest.Builder authorized(JwtAuthResponse tokens, String path) {
+		return request(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.token());
+	}
+
+	private HttpRequest.Builder post(String path, Map<String, Object> body) {
+		return request(path)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.POST(HttpRequest.BodyPublishers.ofByteArray(json(body)));
+	}
+
+	private HttpRequest.Builder request(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.timeout(Duration.ofSeconds(30));
+	}
+
+	/**
+	 * Send the request and, once the warmup is over, record its latency and whether it failed.
+	 * @return The response, or null when the request failed or did not get a 2xx.
+	 */
+	private HttpResponse<byte[]> call(Endpoint endpoint, HttpRequest request) {
+		long start = System.nanoTime();
+		HttpResponse<byte[]> response = null;
+		try {
+			response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+		} catch (IOException e) {
+			// Counted as an error below.
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		boolean ok = response != null && response.statusCode() / 100 == 2;
+		if (recording) {
+			latencies.get(endpoint).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_LATENCY_MICROS));
+			if (!ok) {
+				errors.get(endpoint).computeIfAbsent(response == null ? 0 : response.statusCode(), status -> new LongAdder()).increment();
+			}
+		}
+		return ok ? response : null;
+	}
+
+	private JwtAuthResponse tokens(HttpResponse<byte[]> response) {
+		if (response == null) {
+			return null;
+		}
+		try {
+			return objectMapper.readValue(response.body(), JwtAuthResponse.class);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private byte[] json(Object body) {
+		try {
+			return objectMapper.writeValueAsBytes(body);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void report(Duration duration) throws IOException {
+		double seconds = duration.toMillis() / 1000.0;
+		Map<String, Object> report = new LinkedHashMap<>();
+		StringBuilder table = new StringBuilder(String.format("%n%-8s %9s %9s %9s %9s %9s %9s %7s%n",
+				"endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+		for (Endpoint endpoint : Endpoint.values()) {
+			Histogram histogram = latencies.get(endpoint);
+			long requests = histogram.getTotalCount();
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("requests", requests);
+			row.put("throughput", requests / seconds);
+			row.put("p50Ms", millis(histogram, 50));
+			row.put("p99Ms", millis(histogram, 99));
+			row.put("p999Ms", millis(histogram, 99.9));
+			row.put("maxMs", histogram.getMaxValue() / 1000.0);
+			row.put("errors", errorCount(endpoint));
+			row.put("errorsByStatus", errors.get(endpoint));
+			report.put(endpoint.key(), row);
+			table.append(String.format("%-8s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d%n", endpoint.key(), requests, requests / seconds,
+					millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0,
+					errorCount(endpoint)));
+		}
+		System.out.println(table);
+		File file = new File(environment.getProperty("load.report", "target/load-test-report.json"));
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+	}
+
+	private void assertThresholds(Duration duration) {
+		long requests = latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+		long failed = Arrays.stream(Endpoint.values()).mapToLong(this::errorCount).sum();
+		double throughput = requests / (duration.toMillis() / 1000.0);
+		double minThroughput = environment.getProperty("load.min-throughput", Double.class, 200.0);
+		double maxErrorRate = environment.getProperty("load.max-error-rate", Double.class, 0.001);
+		List<Executable> checks = new ArrayList<>();
+		checks.add(() -> assertTrue(throughput >= minThroughput,
+				String.format("throughput %.1f req/s is below load.min-throughput %.1f", throughput, minThroughput)));
+		checks.add(() -> assertTrue(requests > 0 && (double) failed / requests <= maxErrorRate,
+				String.format("%d of %d requests failed, above load.max-error-rate %s", failed, requests, maxErrorRate)));
+		for (Endpoint endpoint : Endpoint.values()) {
+			Duration maxP99 = environment.getProperty("load.max-p99." + endpoint.key(), Duration.class, endpoint.defaultMaxP99);
+			double p99 = millis(latencies.get(endpoint), 99);
+			checks.add(() -> assertTrue(p99 <= maxP99.toMillis(),
+					String.format("p99 of %s is %.2f ms, above load.max-p99.%s %d ms", endpoint.key(), p99, endpoint.key(), maxP99.toMillis())));
+		}
+		assertAll(checks);
+	}
+
+	private long errorCount(Endpoint endpoint) {
+		return errors.get(endpoint).values().stream().mapToLong(LongAdder::sum).sum();
+	}
+
+	private static double millis(Histogram histogram, double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1000.0;
+	}
+}
@@ -0,0 +1,13 @@
+-- Seed of the H2 database the load test runs against, see WebAppLoadIT. The users are added by the test.
+INSERT INTO roles(role_id, role_name) VALUES (1, 'ROLE_SUPERADMIN'),
+                                             (2, 'ROLE_ADMIN'),
+                                             (3, 'ROLE_SALES'),
+                                             (4, 'ROLE_WORKSHOP'),
+                                             (5, 'ROLE_VALETER');
+
+-- Stand-in for the PostgreSQL catalog read by UserRepository.estimateCount. A negative estimate means
+-- "never analyzed", so the listing falls back to an exact count like on a fresh PostgreSQL table.
+CREATE TABLE pg_namespace (oid INT PRIMARY KEY, nspname VARCHAR(64) NOT NULL);
+CREATE TABLE pg_class (relname VARCHAR(64) NOT NULL, relnamespace INT NOT NULL, reltuples REAL NOT NULL);
+INSERT INTO pg_namespace(oid, nspname) VALUES (1, 'other'), (2, CURRENT_SCHEMA());
+INSERT INTO pg_class(relname, relnamespace, reltuples) VALUES ('users', 1, 1000000), ('users', 2, -1);
@@ -0,0 +1,23 @@
+package cbcoder.webapp.benchmarks;
+
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+
+import java.util.List;
+
+/**
+ * Shared test data of the benchmarks.
+ */
+final class Fixtures {
+	static final String SECRET = "ee60ad300ec74f5eb736bd1e08845012d748a7737a2d5541b9be3842329d2745";
+
+	private Fixtures() {
+	}
+
+	static User user() {
+		User user = new User(7L, "John", "Doe", "john@webapp.com",
+				"$2a$10$7EqJtq98hPqEX7fNZaFWoO5YJrnm5LC8vN5zjiMI1bTRPfoUQhx4i", true,
+				List.of(RoleEnum.ROLE_ADMIN, RoleEnum.ROLE_SALES));
+		return user;
+	}
+}
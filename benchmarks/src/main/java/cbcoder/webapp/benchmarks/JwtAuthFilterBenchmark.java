@@ -0,0 +1,102 @@
+package cbcoder.webapp.benchmarks;
+
+import cbcoder.webapp.Users.config.JwtAuthFilter;
+import cbcoder.webapp.Users.config.VerifiedTokenCache;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.repositories.UserRepository;
+import cbcoder.webapp.Users.services.TokenRevocationService;
+import cbcoder.webapp.Users.services.TokenVersionService;
+import cbcoder.webapp.Users.services.impl.JwtServiceImpl;
+import cbcoder.webapp.Users.services.impl.UserSecurityServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * One request through JwtAuthFilter with a valid bearer token, the UserRepository is a Mockito mock.
+ * The variants are the plain token with and without the verified-token cache, and the self-contained token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+
+	@Param({"plain", "cached", "self-contained"})
+	public String mode;
+
+	private JwtAuthFilter filter;
+	private String authorization;
+	private final FilterChain chain = (request, response) -> {
+	};
+
+	@Setup
+	public void setUp() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		User user = Fixtures.user();
+		// Stub-only: a regular mock records every invocation and grows for the whole run.
+		UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+		when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+		VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(mode.equals("cached"), 10_000, meterRegistry);
+		TokenVersionService tokenVersionService = new TokenVersionService() {
+			@Override
+			public boolean isCurrent(String email, long tokenVersion) {
+				return true;
+			}
+
+			@Override
+			public void evict(String email) {
+			}
+		};
+		TokenRevocationService tokenRevocationService = new TokenRevocationService() {
+			@Override
+			public boolean isRevoked(String jti) {
+				return false;
+			}
+
+			@Override
+			public boolean revoke(String jti, Instant expiresAt) {
+				return true;
+			}
+
+			@Override
+			public void pruneExpired() {
+			}
+		};
+		// A principal cache of size 0 sends every lookup to the repository.
+		UserSecurityServiceImpl userSecurityService = new UserSecurityServiceImpl(userRepository, verifiedTokenCache,
+				tokenVersionService, 0, Duration.ofMinutes(5), meterRegistry);
+		JwtServiceImpl jwtService = new JwtServiceImpl(Fixtures.SECRET, 60_000, 120_000, mode.equals("self-contained"), meterRegistry);
+		filter = new JwtAuthFilter(jwtService, userSecurityService, verifiedTokenCache, tokenVersionService, tokenRevocationService);
+		authorization = "Bearer " + jwtService.generateJwtToken(user);
+	}
+
+	@Benchmark
+	public MockHttpServletRequest doFilter() throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/all");
+		request.addHeader("Authorization", authorization);
+		try {
+			filter.doFilter(request, new MockHttpServletResponse(), chain);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+		return request;
+	}
+}
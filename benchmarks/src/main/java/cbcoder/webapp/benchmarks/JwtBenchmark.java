@@ -0,0 +1,60 @@
+package cbcoder.webapp.benchmarks;
+
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.VerifiedToken;
+import cbcoder.webapp.Users.services.impl.JwtServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation, parsing and validation of JwtServiceImpl, for plain and self-contained tokens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+	@Param({"false", "true"})
+	public boolean selfContained;
+
+	private JwtServiceImpl jwtService;
+	private User user;
+	private String jwt;
+	private VerifiedToken token;
+
+	@Setup
+	public void setUp() {
+		jwtService = new JwtServiceImpl(Fixtures.SECRET, 60_000, 120_000, selfContained, new SimpleMeterRegistry());
+		user = Fixtures.user();
+		jwt = jwtService.generateJwtToken(user);
+		token = jwtService.verifyToken(jwt);
+	}
+
+	@Benchmark
+	public String generate() {
+		return jwtService.generateJwtToken(user);
+	}
+
+	@Benchmark
+	public VerifiedToken parse() {
+		return jwtService.verifyToken(jwt);
+	}
+
+	@Benchmark
+	public boolean validateParsed() {
+		return jwtService.isTokenValid(token, user);
+	}
+
+	/**
+	 * The legacy path that parses the token again for the check.
+	 */
+	@Benchmark
+	public boolean validateFromString() {
+		return jwtService.validateToken(jwt, user);
+	}
+}
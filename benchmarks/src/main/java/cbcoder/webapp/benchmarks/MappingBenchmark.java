@@ -0,0 +1,51 @@
+package cbcoder.webapp.benchmarks;
+
+import cbcoder.webapp.Users.mappers.UserMapper;
+import cbcoder.webapp.Users.model.DTOs.UserDTO;
+import cbcoder.webapp.Users.model.User;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserDTO to User with the ModelMapper configuration the application used to have, against UserMapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+	private ModelMapper modelMapper;
+	private UserDTO source;
+
+	@Setup
+	public void setUp() {
+		modelMapper = new ModelMapper();
+		modelMapper.getConfiguration()
+				.setMatchingStrategy(MatchingStrategies.STRICT)
+				.setSkipNullEnabled(true)
+				.setFieldMatchingEnabled(true)
+				.setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
+		// Roles left out: ModelMapper cannot convert List<Role> to the role mask.
+		source = new UserDTO("John", "Doe", "john@webapp.com", "hash", true, null);
+		source.setUserId(7L);
+		source.setCreatedDate(LocalDateTime.of(2024, 1, 1, 8, 0));
+		source.setUpdatedDate(LocalDateTime.of(2024, 2, 1, 8, 0));
+	}
+
+	@Benchmark
+	public User modelMapper() {
+		return modelMapper.map(source, User.class);
+	}
+
+	@Benchmark
+	public User userMapper() {
+		return UserMapper.toUser(source);
+	}
+}
@@ -0,0 +1,62 @@
+package cbcoder.webapp.benchmarks;
+
+import cbcoder.webapp.Users.mappers.UserMapper;
+import cbcoder.webapp.Users.model.DTOs.UserView;
+import cbcoder.webapp.Users.model.User;
+import cbcoder.webapp.Users.model.enums.RoleEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a page of users as the listing endpoint returns it, a Page of UserView, in each negotiable format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+	@Param({"10", "1000"})
+	public int pageSize;
+
+	@Param({"json", "cbor", "smile"})
+	public String format;
+
+	private ObjectMapper objectMapper;
+	private Page<UserView> page;
+
+	@Setup
+	public void setUp() {
+		Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+		objectMapper = switch (format) {
+			case "cbor" -> builder.factory(new CBORFactory()).build();
+			case "smile" -> builder.factory(new SmileFactory()).build();
+			default -> builder.build();
+		};
+		List<UserView> users = new ArrayList<>(pageSize);
+		for (int i = 0; i < pageSize; i++) {
+			User user = new User((long) i + 1, "First" + i, "Last" + i, "user" + i + "@webapp.com", "hash", true,
+					i % 3 == 0 ? List.of(RoleEnum.ROLE_ADMIN, RoleEnum.ROLE_SALES) : List.of(RoleEnum.ROLE_SALES));
+			users.add(UserMapper.toView(user));
+		}
+		page = new PageImpl<>(users, PageRequest.of(0, pageSize), 50_000);
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+}
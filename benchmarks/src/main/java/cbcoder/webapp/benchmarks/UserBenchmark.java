@@ -0,0 +1,41 @@
+package cbcoder.webapp.benchmarks;
+
+import cbcoder.webapp.Users.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The User methods called on every authenticated request or every update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserBenchmark {
+
+	@Param({"doe", "van der berg"})
+	public String lastName;
+
+	private User user;
+
+	@Setup
+	public void setUp() {
+		user = Fixtures.user();
+	}
+
+	@Benchmark
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return user.getAuthorities();
+	}
+
+	@Benchmark
+	public String setLastName() {
+		user.setLastName(lastName);
+		return user.getLastName();
+	}
+}